@@ -0,0 +1,57 @@
+package io.github.parubok.stream;
+
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+
+/**
+ * Base of {@link TreeModel} implementations - manages the listeners and fires the events.
+ */
+abstract class AbstractTreeModel implements TreeModel {
+
+    private final EventListenerList listenerList = new EventListenerList();
+
+    @Override
+    public void addTreeModelListener(TreeModelListener l) {
+        listenerList.add(TreeModelListener.class, l);
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener l) {
+        listenerList.remove(TreeModelListener.class, l);
+    }
+
+    public TreeModelListener[] getTreeModelListeners() {
+        return listenerList.getListeners(TreeModelListener.class);
+    }
+
+    void fireTreeNodesChanged(TreePath parentPath, int[] indexes, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, parentPath, indexes, children);
+        for (TreeModelListener l : getTreeModelListeners()) {
+            l.treeNodesChanged(event);
+        }
+    }
+
+    void fireTreeNodesInserted(TreePath parentPath, int[] indexes, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, parentPath, indexes, children);
+        for (TreeModelListener l : getTreeModelListeners()) {
+            l.treeNodesInserted(event);
+        }
+    }
+
+    void fireTreeNodesRemoved(TreePath parentPath, int[] indexes, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, parentPath, indexes, children);
+        for (TreeModelListener l : getTreeModelListeners()) {
+            l.treeNodesRemoved(event);
+        }
+    }
+
+    void fireTreeStructureChanged(TreePath path) {
+        TreeModelEvent event = new TreeModelEvent(this, path);
+        for (TreeModelListener l : getTreeModelListeners()) {
+            l.treeStructureChanged(event);
+        }
+    }
+}
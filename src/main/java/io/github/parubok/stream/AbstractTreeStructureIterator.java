@@ -1,11 +1,11 @@
 package io.github.parubok.stream;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.Predicate;
 
 abstract class AbstractTreeStructureIterator implements Iterator<KTreePath> {
 
@@ -15,23 +15,49 @@ abstract class AbstractTreeStructureIterator implements Iterator<KTreePath> {
     static final KTreePath EMPTY_PATH = new KTreePath();
 
     final TreeStructure treeStructure;
+
+    /**
+     * Decides whether the iterator descends into children of the last component of a path. Children of the rejected
+     * paths are never requested from the tree structure.
+     */
+    final Predicate<? super KTreePath> descendFilter;
+
     KTreePath currentPath = EMPTY_PATH;
     KTreePath nextPath;
     boolean completed;
 
-    AbstractTreeStructureIterator(TreeStructure treeStructure) {
+    /**
+     * Index of the current path component at the given depth within its parent (the root is at depth 0).
+     */
+    int[] childIndexes = new int[16];
+
+    /**
+     * Child count of the parent of the current path component at the given depth.
+     */
+    int[] childCounts = new int[16];
+
+    /**
+     * Depth of the current path (0 for the root path).
+     */
+    int depth;
+
+    AbstractTreeStructureIterator(TreeStructure treeStructure, Predicate<? super KTreePath> descendFilter) {
         this.treeStructure = Objects.requireNonNull(treeStructure);
+        this.descendFilter = Objects.requireNonNull(descendFilter);
         treeStructure.startListeningForChanges();
     }
 
-    static List<Object> getChildren(TreeStructure treeStructure, Object parent) {
-        final int c = treeStructure.getChildCount(parent);
-        assert c > 0;
-        List<Object> children = new ArrayList<>(c);
-        for (int i = 0; i < c; i++) {
-            children.add(treeStructure.getChild(parent, i));
+    /**
+     * Goes 1 level down - to the first child of the parent with the specified child count.
+     */
+    void pushChild(int childCount) {
+        depth++;
+        if (depth == childIndexes.length) {
+            childIndexes = Arrays.copyOf(childIndexes, depth * 2);
+            childCounts = Arrays.copyOf(childCounts, depth * 2);
         }
-        return children;
+        childIndexes[depth] = 0;
+        childCounts[depth] = childCount;
     }
 
     /**
@@ -0,0 +1,196 @@
+package io.github.parubok.stream;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link TreeStructure} decorator which memoizes child counts and children of the recently accessed parents, so
+ * repeated requests for the same parent do not reach the decorated structure. The number of the cached parents is
+ * bounded - the least recently used parent is evicted when the limit is exceeded.
+ * <p>
+ * The cache is invalidated only by {@link TreeModelEvent}s (or explicitly - see {@link #invalidate(Object)}), so the
+ * structure must be registered as a listener of the underlying {@link TreeModel} - otherwise it keeps returning the
+ * stale children after the model changes. {@link #of(TreeModel, int)} creates the structure registered as a
+ * listener of the model:
+ * </p>
+ * <pre>
+ * CachingTreeStructure treeStructure = CachingTreeStructure.of(model, 10_000);
+ * ...
+ * treeStructure.dispose(); // stop listening when the structure is no longer used
+ * </pre>
+ * <p>
+ * <b>Note:</b> This class is not thread-safe.
+ * </p>
+ */
+public class CachingTreeStructure implements TreeStructure, TreeModelListener {
+
+    private static final Object[] NO_CHILDREN = new Object[0];
+
+    private final TreeStructure treeStructure;
+    private final int maxCachedParents;
+
+    /**
+     * Model the structure listens to. Null if the structure was not registered by {@link #of(TreeModel, int)}.
+     */
+    private TreeModel model;
+
+    /**
+     * Maps parent to array of its children. The array length is the child count, not yet requested children are
+     * null. Iteration order is from the least recently accessed parent to the most recently accessed.
+     */
+    private final Map<Object, Object[]> cache;
+
+    /**
+     * @param treeStructure Tree structure to decorate. Not null.
+     * @param maxCachedParents Maximal number of parents which children are cached. Must be positive.
+     */
+    public CachingTreeStructure(TreeStructure treeStructure, int maxCachedParents) {
+        this.treeStructure = Objects.requireNonNull(treeStructure);
+        if (maxCachedParents < 1) {
+            throw new IllegalArgumentException("Max cached parents must be positive: " + maxCachedParents);
+        }
+        this.maxCachedParents = maxCachedParents;
+        this.cache = new LinkedHashMap<Object, Object[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Object[]> eldest) {
+                return size() > CachingTreeStructure.this.maxCachedParents;
+            }
+        };
+    }
+
+    /**
+     * Creates structure which caches children of the model and registers it as a listener of the model, so the cache
+     * is kept consistent with the model.
+     *
+     * @param model Model to decorate. Not null.
+     * @param maxCachedParents Maximal number of parents which children are cached. Must be positive.
+     * @return The registered structure. Call {@link #dispose()} to stop listening to the model.
+     */
+    public static CachingTreeStructure of(TreeModel model, int maxCachedParents) {
+        final CachingTreeStructure treeStructure = new CachingTreeStructure(new TreeModelTreeStructure(model, true),
+                maxCachedParents);
+        model.addTreeModelListener(treeStructure);
+        treeStructure.model = model;
+        return treeStructure;
+    }
+
+    /**
+     * Stops listening to the model which the structure was registered with by {@link #of(TreeModel, int)} and
+     * removes all cached children.
+     */
+    public void dispose() {
+        if (model != null) {
+            model.removeTreeModelListener(this);
+            model = null;
+        }
+        invalidateAll();
+    }
+
+    public int getMaxCachedParents() {
+        return maxCachedParents;
+    }
+
+    /**
+     * @return Number of parents which children are currently cached.
+     */
+    public int getCachedParentCount() {
+        return cache.size();
+    }
+
+    private Object[] getChildren(Object parent) {
+        Object[] children = cache.get(parent);
+        if (children == null) {
+            final int childCount = treeStructure.getChildCount(parent);
+            children = childCount > 0 ? new Object[childCount] : NO_CHILDREN;
+            cache.put(parent, children);
+        }
+        return children;
+    }
+
+    @Override
+    public Object getRoot() {
+        return treeStructure.getRoot();
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        Object[] children = getChildren(parent);
+        Object child = children[index];
+        if (child == null) {
+            child = treeStructure.getChild(parent, index);
+            children[index] = child;
+        }
+        return child;
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        return getChildren(parent).length;
+    }
+
+    /**
+     * Removes the cached children of the specified parent.
+     */
+    public void invalidate(Object parent) {
+        cache.remove(parent);
+    }
+
+    /**
+     * Removes all cached children.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    @Override
+    public void startListeningForChanges() {
+        treeStructure.startListeningForChanges();
+    }
+
+    @Override
+    public void stopListeningForChanges() {
+        treeStructure.stopListeningForChanges();
+    }
+
+    @Override
+    public boolean isChangeDetected() {
+        return treeStructure.isChangeDetected();
+    }
+
+    @Override
+    public void treeNodesChanged(TreeModelEvent e) {
+        // do nothing - children of the changed nodes are the same
+    }
+
+    @Override
+    public void treeNodesInserted(TreeModelEvent e) {
+        invalidateParent(e);
+    }
+
+    @Override
+    public void treeNodesRemoved(TreeModelEvent e) {
+        invalidateParent(e);
+    }
+
+    /**
+     * Removes all cached children since any node below the changed one may have different children now.
+     */
+    @Override
+    public void treeStructureChanged(TreeModelEvent e) {
+        invalidateAll();
+    }
+
+    private void invalidateParent(TreeModelEvent e) {
+        TreePath parentPath = e.getTreePath();
+        if (parentPath != null) {
+            invalidate(parentPath.getLastPathComponent());
+        } else {
+            invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package io.github.parubok.stream;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Index of the components of a component hierarchy by class (incl. all superclasses and interfaces) and by name.
+ * <p>
+ * The index is kept up to date by listeners: {@link ContainerListener} of each indexed container indexes the added
+ * subtrees and removes the removed ones, {@link PropertyChangeListener} of each indexed component tracks its name.
+ * Call {@link #dispose()} to remove the listeners when the index is no longer used.
+ * </p>
+ * <p>
+ * <b>Note:</b> Must be created and used on EDT.
+ * </p>
+ *
+ * @see SwingStreamUtils#streamDescendants(Component)
+ */
+public final class ComponentIndex {
+
+    private static final String NAME_PROPERTY = "name";
+
+    /**
+     * Classes and interfaces the instances of a class are indexed by.
+     */
+    private static final ClassValue<List<Class<?>>> SUPERTYPES = new ClassValue<List<Class<?>>>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> type) {
+            final Set<Class<?>> types = new LinkedHashSet<>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                addWithInterfaces(c, types);
+            }
+            return new ArrayList<>(types);
+        }
+
+        private void addWithInterfaces(Class<?> type, Set<Class<?>> types) {
+            if (types.add(type)) {
+                for (Class<?> i : type.getInterfaces()) {
+                    addWithInterfaces(i, types);
+                }
+            }
+        }
+    };
+
+    private final Component root;
+    private final Map<Class<?>, Set<Component>> byClass = new HashMap<>();
+    private final Map<String, Set<Component>> byName = new HashMap<>();
+
+    /**
+     * Name of each indexed component (the key in {@link #byName} may differ from the current name of the component
+     * when the name change is being processed).
+     */
+    private final Map<Component, String> names = new HashMap<>();
+
+    private final ContainerListener containerListener = new ContainerListener() {
+        @Override
+        public void componentAdded(ContainerEvent e) {
+            addSubtree(e.getChild());
+        }
+
+        @Override
+        public void componentRemoved(ContainerEvent e) {
+            removeSubtree(e.getChild());
+        }
+    };
+
+    private final PropertyChangeListener nameListener = new PropertyChangeListener() {
+        @Override
+        public void propertyChange(PropertyChangeEvent e) {
+            final Component component = (Component) e.getSource();
+            if (names.containsKey(component)) {
+                removeFrom(byName, names.get(component), component);
+                addTo(byName, component.getName(), component);
+                names.put(component, component.getName());
+            }
+        }
+    };
+
+    /**
+     * Indexes the root component with its descendants.
+     *
+     * @param root Root of the component hierarchy to index. Not null.
+     */
+    public ComponentIndex(Component root) {
+        this.root = Objects.requireNonNull(root);
+        addSubtree(root);
+    }
+
+    public Component getRoot() {
+        return root;
+    }
+
+    /**
+     * @param type Class or interface. Not null.
+     * @return Unmodifiable view of the indexed components which are instances of the type. Should not be kept while
+     * the hierarchy changes.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Set<T> getComponents(Class<T> type) {
+        Objects.requireNonNull(type);
+        final Set<Component> components = byClass.get(type);
+        return components != null ? Collections.unmodifiableSet((Set<T>) components) : Collections.emptySet();
+    }
+
+    /**
+     * @param name Component name. Null for the components without name.
+     * @return Unmodifiable view of the indexed components with the name. Should not be kept while the hierarchy
+     * changes.
+     */
+    public Set<Component> getComponentsByName(String name) {
+        final Set<Component> components = byName.get(name);
+        return components != null ? Collections.unmodifiableSet(components) : Collections.emptySet();
+    }
+
+    /**
+     * @param type Class or interface. Not null.
+     * @param name Component name. Null for a component without name.
+     * @return Some indexed component of the type with the name.
+     */
+    public <T> Optional<T> find(Class<T> type, String name) {
+        final Set<T> ofType = getComponents(type);
+        final Set<Component> withName = getComponentsByName(name);
+        if (ofType.size() <= withName.size()) {
+            for (T component : ofType) {
+                if (withName.contains(component)) {
+                    return Optional.of(component);
+                }
+            }
+        } else {
+            for (Component component : withName) {
+                if (type.isInstance(component)) {
+                    return Optional.of(type.cast(component));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return True if the component is indexed, i.e. it is the root or its descendant.
+     */
+    public boolean contains(Component component) {
+        return names.containsKey(component);
+    }
+
+    /**
+     * @return Number of the indexed components.
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Removes the listeners from the indexed components and clears the index.
+     */
+    public void dispose() {
+        for (Component component : names.keySet()) {
+            unregister(component);
+        }
+        names.clear();
+        byClass.clear();
+        byName.clear();
+    }
+
+    private void addSubtree(Component subtreeRoot) {
+        SwingStreamUtils.streamDescendants(subtreeRoot).forEach(component -> {
+            if (names.containsKey(component)) {
+                return;
+            }
+            names.put(component, component.getName());
+            for (Class<?> type : SUPERTYPES.get(component.getClass())) {
+                addTo(byClass, type, component);
+            }
+            addTo(byName, component.getName(), component);
+            component.addPropertyChangeListener(NAME_PROPERTY, nameListener);
+            if (component instanceof Container) {
+                ((Container) component).addContainerListener(containerListener);
+            }
+        });
+    }
+
+    private void removeSubtree(Component subtreeRoot) {
+        SwingStreamUtils.streamDescendants(subtreeRoot).forEach(component -> {
+            if (!names.containsKey(component)) {
+                return;
+            }
+            for (Class<?> type : SUPERTYPES.get(component.getClass())) {
+                removeFrom(byClass, type, component);
+            }
+            removeFrom(byName, names.remove(component), component);
+            unregister(component);
+        });
+    }
+
+    private void unregister(Component component) {
+        component.removePropertyChangeListener(NAME_PROPERTY, nameListener);
+        if (component instanceof Container) {
+            ((Container) component).removeContainerListener(containerListener);
+        }
+    }
+
+    private static <K> void addTo(Map<K, Set<Component>> map, K key, Component component) {
+        map.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(component);
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Component>> map, K key, Component component) {
+        final Set<Component> components = map.get(key);
+        if (components != null && components.remove(component) && components.isEmpty()) {
+            map.remove(key);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.parubok.stream;
+
+import javax.swing.AbstractButton;
+import javax.swing.JLabel;
+import javax.swing.text.JTextComponent;
+import java.awt.Button;
+import java.awt.Component;
+import java.awt.Label;
+import java.awt.Rectangle;
+import java.awt.TextComponent;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable record of properties of a component, captured as part of {@link ComponentTreeSnapshot}. Safe to use
+ * from any thread.
+ * <p>
+ * The class of the component is always captured, the rest of the properties - only if requested (see
+ * {@link Property}). The getter of a property which was not captured throws {@link IllegalStateException}.
+ * </p>
+ */
+public final class ComponentSnapshot {
+
+    /**
+     * Optional properties to capture.
+     */
+    public enum Property {
+        /**
+         * {@link Component#getBounds()}.
+         */
+        BOUNDS,
+        /**
+         * {@link Component#getName()}.
+         */
+        NAME,
+        /**
+         * {@link Component#isVisible()}.
+         */
+        VISIBLE,
+        /**
+         * Text of labels, buttons and text components, null for other components.
+         */
+        TEXT
+    }
+
+    private static final ComponentSnapshot[] NO_CHILDREN = new ComponentSnapshot[0];
+
+    private final Set<Property> properties;
+    private final Class<? extends Component> componentClass;
+    private final Rectangle bounds;
+    private final String name;
+    private final boolean visible;
+    private final String text;
+
+    private final ComponentSnapshot[] children;
+
+    /**
+     * Must be invoked on EDT.
+     *
+     * @param properties Unmodifiable set of the properties to capture.
+     * @param children Snapshots of the child components. Null if there are no children.
+     */
+    ComponentSnapshot(Component component, Set<Property> properties, ComponentSnapshot[] children) {
+        this.properties = properties;
+        this.children = children != null ? children : NO_CHILDREN;
+        this.componentClass = component.getClass();
+        this.bounds = properties.contains(Property.BOUNDS) ? component.getBounds() : null;
+        this.name = properties.contains(Property.NAME) ? component.getName() : null;
+        this.visible = properties.contains(Property.VISIBLE) && component.isVisible();
+        this.text = properties.contains(Property.TEXT) ? getText(component) : null;
+    }
+
+    private static String getText(Component component) {
+        if (component instanceof JLabel) {
+            return ((JLabel) component).getText();
+        } else if (component instanceof AbstractButton) {
+            return ((AbstractButton) component).getText();
+        } else if (component instanceof JTextComponent) {
+            return ((JTextComponent) component).getText();
+        } else if (component instanceof Label) {
+            return ((Label) component).getText();
+        } else if (component instanceof Button) {
+            return ((Button) component).getLabel();
+        } else if (component instanceof TextComponent) {
+            return ((TextComponent) component).getText();
+        }
+        return null;
+    }
+
+    private void checkCaptured(Property property) {
+        if (!properties.contains(property)) {
+            throw new IllegalStateException("Property is not captured: " + property + ".");
+        }
+    }
+
+    /**
+     * @return The captured properties.
+     */
+    public Set<Property> getProperties() {
+        return properties;
+    }
+
+    public Class<? extends Component> getComponentClass() {
+        return componentClass;
+    }
+
+    /**
+     * @return Copy of the component bounds.
+     * @throws IllegalStateException If {@link Property#BOUNDS} was not captured.
+     */
+    public Rectangle getBounds() {
+        checkCaptured(Property.BOUNDS);
+        return new Rectangle(bounds);
+    }
+
+    /**
+     * @throws IllegalStateException If {@link Property#NAME} was not captured.
+     */
+    public String getName() {
+        checkCaptured(Property.NAME);
+        return name;
+    }
+
+    /**
+     * @throws IllegalStateException If {@link Property#VISIBLE} was not captured.
+     */
+    public boolean isVisible() {
+        checkCaptured(Property.VISIBLE);
+        return visible;
+    }
+
+    /**
+     * @return Text of the component or null if the component has no text.
+     * @throws IllegalStateException If {@link Property#TEXT} was not captured.
+     */
+    public String getText() {
+        checkCaptured(Property.TEXT);
+        return text;
+    }
+
+    public int getChildCount() {
+        return children.length;
+    }
+
+    public ComponentSnapshot getChild(int index) {
+        return children[index];
+    }
+
+    /**
+     * @return Unmodifiable list of the snapshots of the child components.
+     */
+    public List<ComponentSnapshot> getChildren() {
+        return Collections.unmodifiableList(Arrays.asList(children));
+    }
+
+    @Override
+    public String toString() {
+        return componentClass.getName() + (properties.contains(Property.NAME) ? "[" + name + "]" : "");
+    }
+}
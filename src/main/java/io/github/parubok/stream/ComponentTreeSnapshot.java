@@ -0,0 +1,148 @@
+package io.github.parubok.stream;
+
+import javax.swing.SwingUtilities;
+import java.awt.Component;
+import java.awt.Container;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Immutable snapshot of a component hierarchy - {@link TreeStructure} of {@link ComponentSnapshot} nodes.
+ * <p>
+ * The hierarchy is captured on EDT in a single pass. The snapshot itself may be used from any thread, for example,
+ * to analyze the components in parallel without holding EDT:
+ * </p>
+ * <pre>
+ * ComponentTreeSnapshot snapshot = ComponentTreeSnapshot.capture(frame, Property.BOUNDS, Property.TEXT);
+ * List&lt;ComponentSnapshot&gt; problems = snapshot.parallelStream()
+ *         .filter(c -&gt; c.getText() != null &amp;&amp; c.getBounds().width &lt; MIN_WIDTH)
+ *         .collect(Collectors.toList());
+ * </pre>
+ */
+public final class ComponentTreeSnapshot implements TreeStructure {
+
+    /**
+     * Captures the component hierarchy with the specified properties. The components are read on EDT - if the
+     * calling thread is not EDT, it waits until the capture is complete.
+     *
+     * @param root Root of the hierarchy to capture. Not null.
+     * @param properties Properties to capture. Not null.
+     * @return The snapshot.
+     */
+    public static ComponentTreeSnapshot capture(Component root, Set<ComponentSnapshot.Property> properties) {
+        Objects.requireNonNull(root);
+        final Set<ComponentSnapshot.Property> captured = properties.isEmpty() ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(properties));
+        if (SwingUtilities.isEventDispatchThread()) {
+            return new ComponentTreeSnapshot(root, captured);
+        }
+        final AtomicReference<ComponentTreeSnapshot> snapshotRef = new AtomicReference<>();
+        try {
+            SwingUtilities.invokeAndWait(() -> snapshotRef.set(new ComponentTreeSnapshot(root, captured)));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return snapshotRef.get();
+    }
+
+    /**
+     * @see #capture(Component, Set)
+     */
+    public static ComponentTreeSnapshot capture(Component root, ComponentSnapshot.Property... properties) {
+        return capture(root, properties.length == 0 ? Collections.emptySet()
+                : EnumSet.copyOf(Arrays.asList(properties)));
+    }
+
+    private final ComponentSnapshot root;
+    private final int size;
+
+    /**
+     * State of a container during the capture.
+     */
+    private static final class Frame {
+        final Component component;
+        final Component[] children;
+        final ComponentSnapshot[] snapshots;
+        int next;
+
+        Frame(Component component) {
+            this.component = component;
+            this.children = component instanceof Container ? ((Container) component).getComponents() : null;
+            this.snapshots = children != null && children.length > 0 ? new ComponentSnapshot[children.length] : null;
+        }
+    }
+
+    /**
+     * Must be invoked on EDT. The snapshots are created in post-order, so the children of each snapshot are ready
+     * when it is created.
+     */
+    private ComponentTreeSnapshot(Component rootComponent, Set<ComponentSnapshot.Property> properties) {
+        int count = 0;
+        ComponentSnapshot last = null;
+        final Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(rootComponent));
+        while (!stack.isEmpty()) {
+            final Frame frame = stack.peek();
+            if (frame.snapshots != null && frame.next < frame.snapshots.length) {
+                stack.push(new Frame(frame.children[frame.next++]));
+                continue;
+            }
+            stack.pop();
+            last = new ComponentSnapshot(frame.component, properties, frame.snapshots);
+            count++;
+            final Frame parent = stack.peek();
+            if (parent != null) {
+                parent.snapshots[parent.next - 1] = last;
+            }
+        }
+        this.root = last;
+        this.size = count;
+    }
+
+    @Override
+    public ComponentSnapshot getRoot() {
+        return root;
+    }
+
+    @Override
+    public ComponentSnapshot getChild(Object parent, int index) {
+        return ((ComponentSnapshot) parent).getChild(index);
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        return ((ComponentSnapshot) parent).getChildCount();
+    }
+
+    /**
+     * @return Number of the captured components.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Sequential stream of the component snapshots in depth-first (pre-order) order, starting with the root.
+     */
+    public Stream<ComponentSnapshot> stream() {
+        return SwingStreamUtils.stream(this).map(path -> path.getLastPathComponent(ComponentSnapshot.class));
+    }
+
+    /**
+     * @return Parallel stream of the component snapshots.
+     * @see SwingStreamUtils#parallelStream(TreeStructure)
+     */
+    public Stream<ComponentSnapshot> parallelStream() {
+        return SwingStreamUtils.parallelStream(this).map(path -> path.getLastPathComponent(ComponentSnapshot.class));
+    }
+}
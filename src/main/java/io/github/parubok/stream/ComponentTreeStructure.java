@@ -2,16 +2,86 @@ package io.github.parubok.stream;
 
 import java.awt.Component;
 import java.awt.Container;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Predicate;
 
 /**
  * Presents component tree as {@link TreeStructure}.
+ * <p>
+ * If children snapshots are enabled, the children of each container are read with a single
+ * {@link Container#getComponents()} call (which takes the AWT tree lock once) when its child count is requested,
+ * and the following {@link #getChild(Object, int)} calls are served from the snapshot. The snapshot is dropped when
+ * the last child is requested. This suits a single traversal, which requests the children in order, so a new
+ * instance should be created for each traversal.
+ * </p>
+ * <p>
+ * The snapshots may be filtered - the rejected children (with their subtrees) are excluded from the structure, so
+ * they are never traversed. The filter is evaluated once per child for each snapshot.
+ * </p>
+ * <p>
+ * <b>Note:</b> This class is not thread-safe.
+ * </p>
  */
 final class ComponentTreeStructure implements TreeStructure {
     private final Component root;
 
+    /**
+     * Children snapshots by container. Null if the snapshots are disabled.
+     */
+    private final Map<Container, Component[]> children;
+
+    /**
+     * Accepts children to include. Null to include all children.
+     */
+    private final Predicate<? super Component> filter;
+
+    /**
+     * Creates structure with children snapshots enabled - for a single traversal.
+     */
     ComponentTreeStructure(Component root) {
+        this(root, true);
+    }
+
+    ComponentTreeStructure(Component root, boolean snapshotChildren) {
         this.root = Objects.requireNonNull(root);
+        this.children = snapshotChildren ? new IdentityHashMap<>() : null;
+        this.filter = null;
+    }
+
+    /**
+     * Creates structure with filtered children snapshots - for a single traversal. The root is not filtered.
+     */
+    ComponentTreeStructure(Component root, Predicate<? super Component> filter) {
+        this.root = Objects.requireNonNull(root);
+        this.children = new IdentityHashMap<>();
+        this.filter = Objects.requireNonNull(filter);
+    }
+
+    private Component[] getChildren(Container container) {
+        Component[] components = children.get(container);
+        if (components == null) {
+            components = container.getComponents();
+            if (filter != null) {
+                components = filter(components);
+            }
+            if (components.length > 0) {
+                children.put(container, components);
+            }
+        }
+        return components;
+    }
+
+    private Component[] filter(Component[] components) {
+        int count = 0;
+        for (Component component : components) {
+            if (filter.test(component)) {
+                components[count++] = component; // the array is a copy - safe to reuse
+            }
+        }
+        return count == components.length ? components : Arrays.copyOf(components, count);
     }
 
     @Override
@@ -21,11 +91,23 @@ final class ComponentTreeStructure implements TreeStructure {
 
     @Override
     public Object getChild(Object parent, int index) {
-        return ((Container) parent).getComponent(index);
+        final Container container = (Container) parent;
+        if (children == null) {
+            return container.getComponent(index);
+        }
+        final Component[] components = getChildren(container);
+        if (index == components.length - 1) {
+            children.remove(container); // the last child - the snapshot is not needed anymore
+        }
+        return components[index];
     }
 
     @Override
     public int getChildCount(Object parent) {
-        return (parent instanceof Container) ? ((Container) parent).getComponentCount() : 0;
+        if (!(parent instanceof Container)) {
+            return 0;
+        }
+        final Container container = (Container) parent;
+        return children != null ? getChildren(container).length : container.getComponentCount();
     }
 }
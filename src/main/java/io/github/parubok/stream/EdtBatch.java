@@ -0,0 +1,74 @@
+package io.github.parubok.stream;
+
+import javax.swing.SwingUtilities;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Applies action to the elements of a stream on EDT in time-bounded slices. Each slice is a separate
+ * {@link SwingUtilities#invokeLater(Runnable)} task, so the events queued meanwhile are processed between the slices.
+ * <p>
+ * The stream is consumed on EDT. The processing stops when the future is completed by a caller (for example,
+ * cancelled) - before the next slice.
+ * </p>
+ *
+ * @see SwingStreamUtils#forEachOnEdt(Stream, Consumer, long, IntConsumer)
+ */
+final class EdtBatch<T> implements Runnable {
+    private final Stream<T> stream;
+    private final Consumer<? super T> action;
+    private final long sliceNanos;
+    private final IntConsumer progress;
+    private final CompletableFuture<Integer> future = new CompletableFuture<>();
+    private Iterator<T> iterator;
+    private int count;
+
+    EdtBatch(Stream<T> stream, Consumer<? super T> action, long sliceMillis, IntConsumer progress) {
+        this.stream = Objects.requireNonNull(stream);
+        this.action = Objects.requireNonNull(action);
+        if (sliceMillis < 1) {
+            throw new IllegalArgumentException("Slice duration must be positive: " + sliceMillis);
+        }
+        this.sliceNanos = TimeUnit.MILLISECONDS.toNanos(sliceMillis);
+        this.progress = Objects.requireNonNull(progress);
+    }
+
+    CompletableFuture<Integer> start() {
+        SwingUtilities.invokeLater(this);
+        return future;
+    }
+
+    @Override
+    public void run() {
+        if (future.isDone()) {
+            stream.close(); // cancelled
+            return;
+        }
+        try {
+            if (iterator == null) {
+                iterator = stream.iterator();
+            }
+            final long start = System.nanoTime();
+            do {
+                if (!iterator.hasNext()) {
+                    stream.close();
+                    progress.accept(count);
+                    future.complete(count);
+                    return;
+                }
+                action.accept(iterator.next());
+                count++;
+            } while (System.nanoTime() - start < sliceNanos && !future.isDone());
+            progress.accept(count);
+            SwingUtilities.invokeLater(this);
+        } catch (Throwable e) {
+            stream.close();
+            future.completeExceptionally(e);
+        }
+    }
+}
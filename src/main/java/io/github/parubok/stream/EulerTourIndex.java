@@ -0,0 +1,194 @@
+package io.github.parubok.stream;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Immutable index which labels each node of a tree with its {@link TreeTraversalType#PRE_ORDER} number, depth and
+ * subtree size. The descendants of a node are exactly the nodes with pre-order numbers in range
+ * {@code [pre + 1, pre + subtreeSize)}, so ancestor/descendant checks and subtree size take constant time.
+ * <p>
+ * {@link TreeTraversalType#POST_ORDER} number of a node is derived from the stored values:
+ * {@code post = pre + subtreeSize - 1 - depth}.
+ * </p>
+ * <p>
+ * The index does not follow the changes of the tree - create a new index to reflect them. Since the index is
+ * immutable, it may be created on any thread (e.g. from a snapshot of the tree) and shared between threads.
+ * </p>
+ *
+ * @see TreeStructure
+ */
+public final class EulerTourIndex {
+
+    /**
+     * Creates index of the specified tree structure.
+     *
+     * @param treeStructure Tree structure to index. Not null. Must not change during the call.
+     * @return The index.
+     */
+    public static EulerTourIndex of(TreeStructure treeStructure) {
+        Objects.requireNonNull(treeStructure);
+        Builder builder = new Builder();
+        new TreeStructureWalker(treeStructure, builder).walk();
+        return new EulerTourIndex(builder);
+    }
+
+    private final Object[] nodes; // by pre-order number
+    private final int[] depths; // by pre-order number
+    private final int[] subtreeSizes; // by pre-order number
+    private final int[] parents; // pre-order number of parent by pre-order number, -1 for root
+    private final Map<Object, Integer> preOrderNumbers;
+
+    private EulerTourIndex(Builder builder) {
+        final int size = builder.size;
+        this.nodes = Arrays.copyOf(builder.nodes, size);
+        this.depths = Arrays.copyOf(builder.depths, size);
+        this.subtreeSizes = Arrays.copyOf(builder.subtreeSizes, size);
+        this.parents = Arrays.copyOf(builder.parents, size);
+        this.preOrderNumbers = builder.preOrderNumbers;
+    }
+
+    /**
+     * @return Number of the indexed nodes.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * @return True if the node is in the index.
+     */
+    public boolean contains(Object node) {
+        return preOrderNumbers.containsKey(node);
+    }
+
+    /**
+     * @return Pre-order number of the node (0 for root) or -1 if the node is not in the index.
+     */
+    public int getPreOrderNumber(Object node) {
+        Integer pre = preOrderNumbers.get(node);
+        return pre != null ? pre : -1;
+    }
+
+    private int getExistingPreOrderNumber(Object node) {
+        Integer pre = preOrderNumbers.get(node);
+        if (pre == null) {
+            throw new IllegalArgumentException("Node is not in the index: " + node);
+        }
+        return pre;
+    }
+
+    /**
+     * @return Post-order number of the node (0 for the first leaf, {@code size() - 1} for root).
+     * @throws IllegalArgumentException If the node is not in the index.
+     */
+    public int getPostOrderNumber(Object node) {
+        final int pre = getExistingPreOrderNumber(node);
+        return pre + subtreeSizes[pre] - 1 - depths[pre];
+    }
+
+    /**
+     * @return Depth of the node (0 for root).
+     * @throws IllegalArgumentException If the node is not in the index.
+     */
+    public int getDepth(Object node) {
+        return depths[getExistingPreOrderNumber(node)];
+    }
+
+    /**
+     * @return Number of nodes in the subtree of the node (including the node itself).
+     * @throws IllegalArgumentException If the node is not in the index.
+     */
+    public int getSubtreeSize(Object node) {
+        return subtreeSizes[getExistingPreOrderNumber(node)];
+    }
+
+    /**
+     * @return Parent of the node or null for root.
+     * @throws IllegalArgumentException If the node is not in the index.
+     */
+    public Object getParent(Object node) {
+        final int parent = parents[getExistingPreOrderNumber(node)];
+        return parent > -1 ? nodes[parent] : null;
+    }
+
+    /**
+     * @param preOrderNumber Pre-order number of the node.
+     * @return The node.
+     * @throws IndexOutOfBoundsException If the number is not in range {@code [0, size())}.
+     */
+    public Object getNode(int preOrderNumber) {
+        if (preOrderNumber < 0 || preOrderNumber >= nodes.length) {
+            throw new IndexOutOfBoundsException("Pre-order number: " + preOrderNumber + ", size: " + nodes.length);
+        }
+        return nodes[preOrderNumber];
+    }
+
+    /**
+     * @param ancestor Supposed ancestor node.
+     * @param descendant Supposed descendant node.
+     * @return True if the first node is a proper ancestor of the second node, false otherwise (including the case
+     * when any of the nodes is not in the index).
+     */
+    public boolean isAncestor(Object ancestor, Object descendant) {
+        final int a = getPreOrderNumber(ancestor);
+        final int d = getPreOrderNumber(descendant);
+        return a > -1 && d > a && d < a + subtreeSizes[a];
+    }
+
+    /**
+     * @return Stream of the nodes of the subtree of the node (starting with the node itself) in pre-order.
+     * @throws IllegalArgumentException If the node is not in the index.
+     */
+    public Stream<Object> streamSubtree(Object node) {
+        final int pre = getExistingPreOrderNumber(node);
+        return Arrays.stream(nodes, pre, pre + subtreeSizes[pre]);
+    }
+
+    private static final class Builder implements TreeVisitor {
+        int size;
+        Object[] nodes = new Object[16];
+        int[] depths = new int[16];
+        int[] subtreeSizes = new int[16];
+        int[] parents = new int[16];
+        final Map<Object, Integer> preOrderNumbers = new HashMap<>();
+
+        /**
+         * Pre-order numbers of the nodes of the current path by depth.
+         */
+        int[] path = new int[16];
+
+        @Override
+        public TreeVisitResult enterNode(Object node, Object parent, int depth, int childIndex) {
+            if (size == nodes.length) {
+                final int capacity = size * 2;
+                nodes = Arrays.copyOf(nodes, capacity);
+                depths = Arrays.copyOf(depths, capacity);
+                subtreeSizes = Arrays.copyOf(subtreeSizes, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+            }
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            final int pre = size++;
+            nodes[pre] = node;
+            depths[pre] = depth;
+            parents[pre] = depth > 0 ? path[depth - 1] : -1;
+            path[depth] = pre;
+            if (preOrderNumbers.put(node, pre) != null) {
+                throw new IllegalArgumentException("Duplicate node: " + node);
+            }
+            return TreeVisitResult.CONTINUE;
+        }
+
+        @Override
+        public TreeVisitResult leaveNode(Object node, Object parent, int depth, int childIndex) {
+            final int pre = path[depth];
+            subtreeSizes[pre] = size - pre;
+            return TreeVisitResult.CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,527 @@
+package io.github.parubok.stream;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * View of {@link TreeModel} which contains only the nodes accepted by the filter and their ancestors. The root of
+ * the source model is always included.
+ * <p>
+ * For each included node, the model keeps its included children with their source indexes, so {@link #getChild}
+ * and {@link #getChildCount} take constant time. {@link #getIndexOfChild} takes constant time after the child-to-index
+ * map of the parent is built (on the first call for the parent).
+ * </p>
+ * <p>
+ * The view listens to the source model and updates only the affected part of the tree on each source event,
+ * firing the corresponding events to its own listeners. Call {@link #dispose()} to stop listening when the view is
+ * no longer used.
+ * </p>
+ * <p>
+ * <b>Note:</b> Must be used on EDT.
+ * </p>
+ *
+ * @see TreeStructure
+ */
+public class FilteredTreeModel extends AbstractTreeModel {
+
+    private static final int[] NO_CHILDREN = new int[0];
+    private static final Object[] NO_NODES = new Object[0];
+
+    /**
+     * State of an included node.
+     */
+    private static final class Entry {
+        /**
+         * True if the node is accepted by the filter, false if the node is included only as an ancestor.
+         */
+        boolean matches;
+
+        /**
+         * Sorted source indexes of the included children.
+         */
+        int[] children;
+
+        /**
+         * The included children - in the order of {@link #children}.
+         */
+        Object[] nodes;
+
+        /**
+         * Maps included child to its index in this view. Built on demand.
+         */
+        Map<Object, Integer> indexes;
+
+        Entry(boolean matches, int[] children, Object[] nodes) {
+            this.matches = matches;
+            this.children = children;
+            this.nodes = nodes;
+        }
+
+        void setChildren(int[] children, Object[] nodes) {
+            this.children = children;
+            this.nodes = nodes;
+            this.indexes = null;
+        }
+    }
+
+    /**
+     * State of a node during evaluation of a subtree.
+     */
+    private static final class Frame {
+        final Object node;
+        final int sourceIndex;
+        final int[] candidates; // source indexes of children to evaluate, null for all children
+        final int candidateCount;
+        int position;
+        int[] included = NO_CHILDREN;
+        Object[] includedNodes = NO_NODES;
+        int includedCount;
+
+        Frame(Object node, int sourceIndex, int[] candidates, int candidateCount) {
+            this.node = node;
+            this.sourceIndex = sourceIndex;
+            this.candidates = candidates;
+            this.candidateCount = candidateCount;
+        }
+
+        void addIncluded(int index, Object node) {
+            if (includedCount == included.length) {
+                included = Arrays.copyOf(included, Math.max(4, includedCount * 2));
+                includedNodes = Arrays.copyOf(includedNodes, included.length);
+            }
+            included[includedCount] = index;
+            includedNodes[includedCount] = node;
+            includedCount++;
+        }
+    }
+
+    private final TreeModel source;
+    private final TreeModelListener sourceListener = new SourceListener();
+    private final Map<Object, Entry> entries = new HashMap<>();
+    private Predicate<Object> filter;
+
+    /**
+     * @param source Source model. Not null.
+     * @param filter Accepts the nodes to include. Not null.
+     */
+    public FilteredTreeModel(TreeModel source, Predicate<Object> filter) {
+        this.source = Objects.requireNonNull(source);
+        this.filter = Objects.requireNonNull(filter);
+        evaluateAll();
+        source.addTreeModelListener(sourceListener);
+    }
+
+    public TreeModel getSource() {
+        return source;
+    }
+
+    public Predicate<Object> getFilter() {
+        return filter;
+    }
+
+    /**
+     * Sets the new filter and re-evaluates the whole tree.
+     *
+     * @param filter Accepts the nodes to include. Not null.
+     * @see #narrowFilter(Predicate)
+     */
+    public void setFilter(Predicate<Object> filter) {
+        this.filter = Objects.requireNonNull(filter);
+        evaluateAll();
+        fireTreeStructureChanged(getRootPath());
+    }
+
+    /**
+     * Sets the new filter which accepts only nodes accepted by the current filter (for example, when search text is
+     * extended). Only the currently included nodes are re-evaluated.
+     *
+     * @param filter Accepts the nodes to include. Not null. Must not accept nodes rejected by the current filter.
+     * @see #setFilter(Predicate)
+     */
+    public void narrowFilter(Predicate<Object> filter) {
+        this.filter = Objects.requireNonNull(filter);
+        final Object root = source.getRoot();
+        if (root != null) {
+            evaluate(root, -1, true);
+            ensureRootEntry();
+        }
+        fireTreeStructureChanged(getRootPath());
+    }
+
+    /**
+     * Stops listening to the source model.
+     */
+    public void dispose() {
+        source.removeTreeModelListener(sourceListener);
+    }
+
+    /**
+     * @return True if the node is included in this view.
+     */
+    public boolean isIncluded(Object node) {
+        return node != null && entries.containsKey(node);
+    }
+
+    /**
+     * @return True if the node is accepted by the filter (as opposed to the nodes included as ancestors only).
+     */
+    public boolean isMatching(Object node) {
+        Entry entry = node != null ? entries.get(node) : null;
+        return entry != null && entry.matches;
+    }
+
+    private TreePath getRootPath() {
+        final Object root = source.getRoot();
+        return root != null ? new TreePath(root) : null;
+    }
+
+    private void evaluateAll() {
+        entries.clear();
+        final Object root = source.getRoot();
+        if (root != null) {
+            evaluate(root, -1, false);
+            ensureRootEntry();
+        }
+    }
+
+    private void ensureRootEntry() {
+        entries.computeIfAbsent(source.getRoot(), root -> new Entry(false, NO_CHILDREN, NO_NODES));
+    }
+
+    private Frame createFrame(Object node, int sourceIndex, boolean narrow) {
+        if (narrow) {
+            Entry entry = entries.get(node);
+            int[] candidates = entry != null ? entry.children : NO_CHILDREN;
+            return new Frame(node, sourceIndex, candidates, candidates.length);
+        }
+        return new Frame(node, sourceIndex, null, source.getChildCount(node));
+    }
+
+    /**
+     * Evaluates the subtree of the node and updates the entries of its nodes.
+     *
+     * @param narrow If true, only the currently included nodes are evaluated.
+     * @return True if the node is included.
+     */
+    private boolean evaluate(Object node, int sourceIndex, boolean narrow) {
+        final Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(createFrame(node, sourceIndex, narrow));
+        while (true) {
+            Frame frame = stack.peek();
+            if (frame.position < frame.candidateCount) {
+                final int index = frame.candidates != null ? frame.candidates[frame.position] : frame.position;
+                frame.position++;
+                stack.push(createFrame(source.getChild(frame.node, index), index, narrow));
+                continue;
+            }
+            stack.pop();
+            final boolean matches = filter.test(frame.node);
+            final boolean included = matches || frame.includedCount > 0;
+            if (included) {
+                entries.put(frame.node, frame.includedCount > 0
+                        ? new Entry(matches, Arrays.copyOf(frame.included, frame.includedCount),
+                        Arrays.copyOf(frame.includedNodes, frame.includedCount))
+                        : new Entry(matches, NO_CHILDREN, NO_NODES));
+            } else {
+                entries.remove(frame.node);
+            }
+            Frame parentFrame = stack.peek();
+            if (parentFrame == null) {
+                return included;
+            }
+            if (included) {
+                parentFrame.addIncluded(frame.sourceIndex, frame.node);
+            }
+        }
+    }
+
+    /**
+     * Removes entries of the subtree of the node. The source model is not accessed, so the subtree may be already
+     * changed.
+     */
+    private void removeEntries(Object node) {
+        final Deque<Object> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Entry entry = entries.remove(stack.pop());
+            if (entry != null) {
+                for (Object child : entry.nodes) {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Excludes the child from its parent. Excludes the ancestors which are not included anymore.
+     */
+    private void excludeChild(TreePath parentPath, Object child, int sourceIndex) {
+        while (true) {
+            entries.remove(child);
+            final Object parent = parentPath.getLastPathComponent();
+            final Entry parentEntry = entries.get(parent);
+            final int index = Arrays.binarySearch(parentEntry.children, sourceIndex);
+            final int[] children = new int[parentEntry.children.length - 1];
+            System.arraycopy(parentEntry.children, 0, children, 0, index);
+            System.arraycopy(parentEntry.children, index + 1, children, index, children.length - index);
+            final Object[] nodes = new Object[children.length];
+            System.arraycopy(parentEntry.nodes, 0, nodes, 0, index);
+            System.arraycopy(parentEntry.nodes, index + 1, nodes, index, nodes.length - index);
+            parentEntry.setChildren(children, nodes);
+            fireTreeNodesRemoved(parentPath, new int[]{index}, new Object[]{child});
+            final TreePath grandParentPath = parentPath.getParentPath();
+            if (parentEntry.matches || children.length > 0 || grandParentPath == null) {
+                return;
+            }
+            child = parent;
+            sourceIndex = source.getIndexOfChild(grandParentPath.getLastPathComponent(), parent);
+            parentPath = grandParentPath;
+        }
+    }
+
+    /**
+     * Includes the child in its parent. Includes the ancestors which are not included yet.
+     */
+    private void includeChild(TreePath parentPath, Object child, int sourceIndex, Entry childEntry) {
+        while (true) {
+            entries.put(child, childEntry);
+            final Object parent = parentPath.getLastPathComponent();
+            final Entry parentEntry = entries.get(parent);
+            if (parentEntry != null) {
+                final int index = -(Arrays.binarySearch(parentEntry.children, sourceIndex) + 1);
+                final int[] children = new int[parentEntry.children.length + 1];
+                System.arraycopy(parentEntry.children, 0, children, 0, index);
+                children[index] = sourceIndex;
+                System.arraycopy(parentEntry.children, index, children, index + 1, children.length - index - 1);
+                final Object[] nodes = new Object[children.length];
+                System.arraycopy(parentEntry.nodes, 0, nodes, 0, index);
+                nodes[index] = child;
+                System.arraycopy(parentEntry.nodes, index, nodes, index + 1, nodes.length - index - 1);
+                parentEntry.setChildren(children, nodes);
+                fireTreeNodesInserted(parentPath, new int[]{index}, new Object[]{child});
+                return;
+            }
+            // the parent was not included - it is included now as an ancestor of the child:
+            childEntry = new Entry(false, new int[]{sourceIndex}, new Object[]{child});
+            child = parent;
+            parentPath = parentPath.getParentPath();
+            sourceIndex = source.getIndexOfChild(parentPath.getLastPathComponent(), parent);
+        }
+    }
+
+    private final class SourceListener implements TreeModelListener {
+        @Override
+        public void treeNodesChanged(TreeModelEvent e) {
+            final TreePath parentPath = e.getTreePath();
+            final int[] sourceIndexes = e.getChildIndices();
+            if (sourceIndexes == null || sourceIndexes.length == 0) {
+                // root is changed:
+                Entry rootEntry = entries.get(parentPath.getLastPathComponent());
+                if (rootEntry != null) {
+                    rootEntry.matches = filter.test(parentPath.getLastPathComponent());
+                    fireTreeNodesChanged(parentPath, null, null);
+                }
+                return;
+            }
+            final Object[] children = e.getChildren();
+            final Entry parentEntry = entries.get(parentPath.getLastPathComponent());
+            int[] changedIndexes = new int[sourceIndexes.length];
+            Object[] changedChildren = new Object[sourceIndexes.length];
+            int changedCount = 0;
+            boolean[] excluded = new boolean[sourceIndexes.length];
+            boolean[] included = new boolean[sourceIndexes.length];
+            for (int i = 0; i < sourceIndexes.length; i++) {
+                final boolean matches = filter.test(children[i]);
+                final Entry entry = entries.get(children[i]);
+                if (entry != null) {
+                    entry.matches = matches;
+                    if (matches || entry.children.length > 0) {
+                        changedIndexes[changedCount] = Arrays.binarySearch(parentEntry.children, sourceIndexes[i]);
+                        changedChildren[changedCount] = children[i];
+                        changedCount++;
+                    } else {
+                        excluded[i] = true;
+                    }
+                } else {
+                    included[i] = matches;
+                }
+            }
+            if (changedCount > 0) {
+                fireTreeNodesChanged(parentPath, Arrays.copyOf(changedIndexes, changedCount),
+                        Arrays.copyOf(changedChildren, changedCount));
+            }
+            for (int i = sourceIndexes.length - 1; i > -1; i--) {
+                if (excluded[i]) {
+                    excludeChild(parentPath, children[i], sourceIndexes[i]);
+                }
+            }
+            for (int i = 0; i < sourceIndexes.length; i++) {
+                if (included[i]) {
+                    includeChild(parentPath, children[i], sourceIndexes[i], new Entry(true, NO_CHILDREN, NO_NODES));
+                }
+            }
+        }
+
+        @Override
+        public void treeNodesInserted(TreeModelEvent e) {
+            final TreePath parentPath = e.getTreePath();
+            final int[] sourceIndexes = e.getChildIndices();
+            final Object[] children = e.getChildren();
+            final Entry parentEntry = entries.get(parentPath.getLastPathComponent());
+            if (parentEntry != null) {
+                // shift source indexes of the included children:
+                final int[] shifted = parentEntry.children.clone();
+                int j = 0;
+                for (int k = 0; k < shifted.length; k++) {
+                    while (j < sourceIndexes.length && sourceIndexes[j] <= shifted[k] + j) {
+                        j++;
+                    }
+                    shifted[k] += j;
+                }
+                parentEntry.setChildren(shifted, parentEntry.nodes);
+            }
+            for (int i = 0; i < sourceIndexes.length; i++) {
+                if (evaluate(children[i], sourceIndexes[i], false)) {
+                    includeChild(parentPath, children[i], sourceIndexes[i], entries.get(children[i]));
+                }
+            }
+        }
+
+        @Override
+        public void treeNodesRemoved(TreeModelEvent e) {
+            final TreePath parentPath = e.getTreePath();
+            final Object parent = parentPath.getLastPathComponent();
+            final Entry parentEntry = entries.get(parent);
+            final Object[] children = e.getChildren();
+            for (Object child : children) {
+                removeEntries(child);
+            }
+            if (parentEntry == null) {
+                return; // the removed children were not included
+            }
+            final int[] sourceIndexes = e.getChildIndices();
+            final int[] oldChildren = parentEntry.children;
+            final int[] removedIndexes = new int[sourceIndexes.length];
+            final Object[] removedChildren = new Object[sourceIndexes.length];
+            int removedCount = 0;
+            final int[] newChildren = new int[oldChildren.length];
+            final Object[] newNodes = new Object[oldChildren.length];
+            int newCount = 0;
+            int j = 0;
+            for (int k = 0; k < oldChildren.length; k++) {
+                while (j < sourceIndexes.length && sourceIndexes[j] < oldChildren[k]) {
+                    j++;
+                }
+                if (j < sourceIndexes.length && sourceIndexes[j] == oldChildren[k]) {
+                    removedIndexes[removedCount] = k;
+                    removedChildren[removedCount] = children[j];
+                    removedCount++;
+                } else {
+                    newChildren[newCount] = oldChildren[k] - j;
+                    newNodes[newCount] = parentEntry.nodes[k];
+                    newCount++;
+                }
+            }
+            if (newCount > 0) {
+                parentEntry.setChildren(Arrays.copyOf(newChildren, newCount), Arrays.copyOf(newNodes, newCount));
+            } else {
+                parentEntry.setChildren(NO_CHILDREN, NO_NODES);
+            }
+            if (removedCount == 0) {
+                return; // only the source indexes are shifted
+            }
+            fireTreeNodesRemoved(parentPath, Arrays.copyOf(removedIndexes, removedCount),
+                    Arrays.copyOf(removedChildren, removedCount));
+            final TreePath grandParentPath = parentPath.getParentPath();
+            if (!parentEntry.matches && newCount == 0 && grandParentPath != null) {
+                final Object grandParent = grandParentPath.getLastPathComponent();
+                excludeChild(grandParentPath, parent, source.getIndexOfChild(grandParent, parent));
+            }
+        }
+
+        @Override
+        public void treeStructureChanged(TreeModelEvent e) {
+            final TreePath path = e.getTreePath();
+            if (path == null || path.getParentPath() == null) {
+                evaluateAll();
+                fireTreeStructureChanged(path);
+                return;
+            }
+            final Object node = path.getLastPathComponent();
+            final TreePath parentPath = path.getParentPath();
+            final int sourceIndex = source.getIndexOfChild(parentPath.getLastPathComponent(), node);
+            final boolean wasIncluded = entries.containsKey(node);
+            removeEntries(node); // the previous children may be not in the source anymore
+            final boolean included = evaluate(node, sourceIndex, false);
+            if (wasIncluded && included) {
+                fireTreeStructureChanged(path);
+            } else if (wasIncluded) {
+                excludeChild(parentPath, node, sourceIndex);
+            } else if (included) {
+                includeChild(parentPath, node, sourceIndex, entries.get(node));
+            }
+        }
+    }
+
+    @Override
+    public Object getRoot() {
+        return source.getRoot();
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        final Entry entry = entries.get(parent);
+        if (entry == null || index < 0 || index >= entry.children.length) {
+            return null;
+        }
+        return entry.nodes[index];
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        final Entry entry = entries.get(parent);
+        return entry != null ? entry.children.length : 0;
+    }
+
+    /**
+     * @return True if the node has no included children.
+     */
+    @Override
+    public boolean isLeaf(Object node) {
+        return getChildCount(node) == 0;
+    }
+
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        source.valueForPathChanged(path, newValue);
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (parent == null || child == null) {
+            return -1;
+        }
+        final Entry entry = entries.get(parent);
+        if (entry == null) {
+            return -1;
+        }
+        if (entry.indexes == null) {
+            final Map<Object, Integer> indexes = new HashMap<>(Math.max(16, entry.children.length * 4 / 3 + 1));
+            for (int i = 0; i < entry.nodes.length; i++) {
+                indexes.put(entry.nodes[i], i);
+            }
+            entry.indexes = indexes;
+        }
+        final Integer index = entry.indexes.get(child);
+        return index != null ? index : -1;
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.parubok.stream;
+
+/**
+ * Consumer of the nodes of {@link IntTreeStructure}.
+ *
+ * @see SwingStreamUtils#forEach(IntTreeStructure, TreeTraversalType, IntTreeNodeConsumer)
+ */
+@FunctionalInterface
+public interface IntTreeNodeConsumer {
+
+    /**
+     * @param node Id of the node.
+     * @param depth Depth of the node (0 for the root).
+     */
+    void accept(int node, int depth);
+}
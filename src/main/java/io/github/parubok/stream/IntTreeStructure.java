@@ -0,0 +1,34 @@
+package io.github.parubok.stream;
+
+/**
+ * Read-only access to a tree which nodes are identified by non-negative int ids. Unlike {@link TreeStructure}, does
+ * not require boxing of the nodes.
+ *
+ * @see SwingStreamUtils#stream(IntTreeStructure, TreeTraversalType)
+ * @see SwingStreamUtils#forEach(IntTreeStructure, TreeTraversalType, IntTreeNodeConsumer)
+ */
+public interface IntTreeStructure {
+
+    /**
+     * @return Id of the root node or -1 if the tree is empty.
+     */
+    int getRoot();
+
+    /**
+     * @return Id of the child of the parent at the specified index.
+     */
+    int getChild(int parent, int index);
+
+    /**
+     * @return Number of children of the parent.
+     */
+    int getChildCount(int parent);
+
+    /**
+     * @return {@link TreeStructure} view of this structure with {@link Integer} nodes. May be used to display the
+     * tree in {@link javax.swing.JTree} or to stream its {@link KTreePath}s.
+     */
+    default TreeStructure asTreeStructure() {
+        return new IntTreeStructureAdapter(this);
+    }
+}
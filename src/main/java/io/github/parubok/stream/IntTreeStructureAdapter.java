@@ -0,0 +1,31 @@
+package io.github.parubok.stream;
+
+import java.util.Objects;
+
+/**
+ * {@link TreeStructure} view of {@link IntTreeStructure} with {@link Integer} nodes.
+ */
+final class IntTreeStructureAdapter implements TreeStructure {
+
+    private final IntTreeStructure intTreeStructure;
+
+    IntTreeStructureAdapter(IntTreeStructure intTreeStructure) {
+        this.intTreeStructure = Objects.requireNonNull(intTreeStructure);
+    }
+
+    @Override
+    public Object getRoot() {
+        final int root = intTreeStructure.getRoot();
+        return root > -1 ? root : null;
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        return intTreeStructure.getChild((Integer) parent, index);
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        return intTreeStructure.getChildCount((Integer) parent);
+    }
+}
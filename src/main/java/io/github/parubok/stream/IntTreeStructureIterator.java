@@ -0,0 +1,208 @@
+package io.github.parubok.stream;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+/**
+ * Iterator over the node ids of {@link IntTreeStructure}. Keeps the traversal state in int arrays, so no objects are
+ * created per node.
+ */
+final class IntTreeStructureIterator implements PrimitiveIterator.OfInt {
+
+    private final IntTreeStructure treeStructure;
+    private final TreeTraversalType traversalType;
+
+    /**
+     * Depth-first traversal: nodes of the current path, index of each of them in its parent and child count of the
+     * parent - all by depth.
+     * Breadth-first traversal: queue of nodes.
+     */
+    private int[] nodes = new int[16];
+    private int[] childIndexes = new int[16];
+    private int[] childCounts = new int[16];
+
+    /**
+     * Depth-first traversal: depth of the current node. Breadth-first traversal: depths of the queued nodes.
+     */
+    private int depth;
+    private int[] depths;
+
+    /**
+     * Breadth-first traversal: head and tail of the queue (ring buffer).
+     */
+    private int head;
+    private int tail;
+
+    private int next = -1; // -1 if not computed yet
+    private int nextDepth;
+    private boolean started;
+    private boolean completed;
+
+    private int currentDepth = -1;
+
+    IntTreeStructureIterator(IntTreeStructure treeStructure, TreeTraversalType traversalType) {
+        this.treeStructure = Objects.requireNonNull(treeStructure);
+        this.traversalType = Objects.requireNonNull(traversalType);
+    }
+
+    /**
+     * @return Depth of the node returned by the last call of {@link #nextInt()}.
+     */
+    int getDepth() {
+        return currentDepth;
+    }
+
+    private void pushChild(int parentDepth, int childCount) {
+        final int childDepth = parentDepth + 1;
+        if (childDepth == nodes.length) {
+            nodes = Arrays.copyOf(nodes, childDepth * 2);
+            childIndexes = Arrays.copyOf(childIndexes, childDepth * 2);
+            childCounts = Arrays.copyOf(childCounts, childDepth * 2);
+        }
+        nodes[childDepth] = treeStructure.getChild(nodes[parentDepth], 0);
+        childIndexes[childDepth] = 0;
+        childCounts[childDepth] = childCount;
+        depth = childDepth;
+    }
+
+    /**
+     * Moves to the next sibling of the current node.
+     *
+     * @return False if there is no next sibling.
+     */
+    private boolean nextSibling() {
+        if (depth == 0) {
+            return false;
+        }
+        final int nextIndex = childIndexes[depth] + 1;
+        if (nextIndex == childCounts[depth]) {
+            return false;
+        }
+        childIndexes[depth] = nextIndex;
+        nodes[depth] = treeStructure.getChild(nodes[depth - 1], nextIndex);
+        return true;
+    }
+
+    private void descendToLeaf() {
+        int childCount;
+        while ((childCount = treeStructure.getChildCount(nodes[depth])) > 0) {
+            pushChild(depth, childCount);
+        }
+    }
+
+    private void enqueue(int node, int nodeDepth) {
+        nodes[tail] = node;
+        depths[tail] = nodeDepth;
+        tail = (tail + 1) & (nodes.length - 1);
+        if (tail == head) {
+            // queue is full - grow it:
+            final int capacity = nodes.length;
+            int[] newNodes = new int[capacity * 2];
+            int[] newDepths = new int[capacity * 2];
+            System.arraycopy(nodes, head, newNodes, 0, capacity - head);
+            System.arraycopy(nodes, 0, newNodes, capacity - head, head);
+            System.arraycopy(depths, head, newDepths, 0, capacity - head);
+            System.arraycopy(depths, 0, newDepths, capacity - head, head);
+            nodes = newNodes;
+            depths = newDepths;
+            head = 0;
+            tail = capacity;
+        }
+    }
+
+    /**
+     * Computes depth of the next node. For depth-first traversal, the next node is the current node.
+     *
+     * @return Depth of the next node or -1 if there is no next node.
+     */
+    private int computeNext() {
+        if (!started) {
+            started = true;
+            final int root = treeStructure.getRoot();
+            if (root < 0) {
+                return -1;
+            }
+            if (traversalType == TreeTraversalType.BREADTH_FIRST) {
+                depths = new int[nodes.length];
+                childIndexes = null;
+                childCounts = null;
+                enqueue(root, 0);
+            } else {
+                nodes[0] = root;
+                if (traversalType == TreeTraversalType.POST_ORDER) {
+                    descendToLeaf();
+                }
+                return depth;
+            }
+        }
+        switch (traversalType) {
+            case PRE_ORDER:
+                final int childCount = treeStructure.getChildCount(nodes[depth]);
+                if (childCount > 0) {
+                    pushChild(depth, childCount);
+                    return depth;
+                }
+                while (depth > 0) {
+                    if (nextSibling()) {
+                        return depth;
+                    }
+                    depth--;
+                }
+                return -1;
+            case POST_ORDER:
+                if (depth == 0) {
+                    return -1;
+                }
+                if (nextSibling()) {
+                    descendToLeaf();
+                } else {
+                    depth--;
+                }
+                return depth;
+            default:
+                if (head == tail) {
+                    return -1;
+                }
+                final int node = nodes[head];
+                final int nodeDepth = depths[head];
+                head = (head + 1) & (nodes.length - 1);
+                final int count = treeStructure.getChildCount(node);
+                for (int i = 0; i < count; i++) {
+                    enqueue(treeStructure.getChild(node, i), nodeDepth + 1);
+                }
+                next = node;
+                return nodeDepth;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (completed) {
+            return false;
+        }
+        if (next == -1) {
+            nextDepth = computeNext();
+            if (nextDepth == -1) {
+                completed = true;
+                return false;
+            }
+            if (traversalType != TreeTraversalType.BREADTH_FIRST) {
+                next = nodes[depth];
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int nextInt() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final int node = next;
+        next = -1;
+        currentDepth = nextDepth;
+        return node;
+    }
+}
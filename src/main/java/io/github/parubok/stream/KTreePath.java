@@ -3,27 +3,49 @@ package io.github.parubok.stream;
 import javax.swing.tree.TreePath;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * Subclass of {@link TreePath} which adds some convenience methods.
+ * <p>
+ * A path created by {@link #pathByAddingChild(Object)} shares its parent path instead of copying it, so creating
+ * a child path takes constant time and memory regardless of the path length. The parent of {@link KTreePath} is
+ * always {@link KTreePath} as well.
+ * </p>
  */
 public class KTreePath extends TreePath {
 
+    /**
+     * Number of components in this path or 0 if it is unknown (see {@link #KTreePath()}).
+     */
+    private final int pathCount;
+
     protected KTreePath() {
         super();
+        pathCount = 0;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param parent Parent path. Null for the root path.
+     * @param lastPathComponent The last component of the new path. Not null.
+     */
+    protected KTreePath(KTreePath parent, Object lastPathComponent) {
+        super(parent, lastPathComponent);
+        pathCount = parent != null ? parent.getPathCount() + 1 : 1;
     }
 
     /**
      * Static factory method.
      */
     public static KTreePath of(Object root, Object... components) {
-        List<Object> list = new ArrayList<>(1 + components.length);
-        list.add(root);
-        Collections.addAll(list, components);
-        return new KTreePath(list);
+        KTreePath path = new KTreePath(null, root);
+        for (Object component : components) {
+            path = new KTreePath(path, component);
+        }
+        return path;
     }
 
     /**
@@ -32,28 +54,74 @@ public class KTreePath extends TreePath {
      * @param path Non-empty collection with the path components.
      */
     public KTreePath(Collection<?> path) {
-        super(path.toArray());
+        this(path.toArray());
+    }
+
+    private KTreePath(Object[] path) {
+        super(createPath(path, path.length - 1), getLastComponent(path));
+        pathCount = path.length;
     }
 
     /**
      * Constructor.
      *
-     * @param path Source path. Not null.
+     * @param path Source path. Not null. If the parent of the source path is {@link KTreePath}, it is shared by the
+     * new path.
      */
     public KTreePath(TreePath path) {
-        super(path.getPath());
+        this(getParentKTreePath(path), path.getLastPathComponent());
+    }
+
+    private static Object getLastComponent(Object[] path) {
+        if (path.length == 0) {
+            throw new IllegalArgumentException("Path must be non-empty.");
+        }
+        return path[path.length - 1];
+    }
+
+    /**
+     * @return Path with the first {@code length} components of the specified array or null if length is 0.
+     */
+    private static KTreePath createPath(Object[] components, int length) {
+        KTreePath path = null;
+        for (int i = 0; i < length; i++) {
+            path = new KTreePath(path, components[i]);
+        }
+        return path;
+    }
+
+    private static KTreePath getParentKTreePath(TreePath path) {
+        TreePath parentPath = path.getParentPath();
+        if (parentPath == null || parentPath instanceof KTreePath) {
+            return (KTreePath) parentPath;
+        }
+        Object[] components = parentPath.getPath();
+        return createPath(components, components.length);
     }
 
     @Override
     public KTreePath pathByAddingChild(Object child) {
-        TreePath treePath = super.pathByAddingChild(child);
-        return new KTreePath(treePath);
+        if (child == null) {
+            throw new NullPointerException("Null child not allowed");
+        }
+        return new KTreePath(this, child);
     }
 
     @Override
     public KTreePath getParentPath() {
         TreePath parentPath = super.getParentPath();
-        return parentPath != null ? new KTreePath(parentPath) : null;
+        if (parentPath == null || parentPath instanceof KTreePath) {
+            return (KTreePath) parentPath;
+        }
+        return new KTreePath(parentPath);
+    }
+
+    /**
+     * @implNote Unlike {@link TreePath#getPathCount()}, takes constant time.
+     */
+    @Override
+    public int getPathCount() {
+        return pathCount > 0 ? pathCount : super.getPathCount();
     }
 
     /**
@@ -72,11 +140,11 @@ public class KTreePath extends TreePath {
      */
     public int indexOf(Object component) {
         int index = -1;
-        final int count = getPathCount();
-        for (int i = 0; i < count; i++) {
-            if (Objects.equals(getPathComponent(i), component)) {
+        int i = getPathCount() - 1;
+        // walk from the last component to the root - the last match has the lowest index:
+        for (TreePath path = this; path != null; path = path.getParentPath(), i--) {
+            if (Objects.equals(path.getLastPathComponent(), component)) {
                 index = i;
-                break;
             }
         }
         return index;
@@ -0,0 +1,230 @@
+package io.github.parubok.stream;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link TreeStructure} decorator which loads children of the decorated structure in background: once children of a
+ * node are requested for the first time, children of each of them are requested from the decorated structure on the
+ * executor, so the loads of the upcoming nodes overlap with the traversal and with each other. Children of each node
+ * are loaded once per traversal.
+ * <p>
+ * The traversal order does not depend on the timing of the loads - if children of a node are required before their
+ * background load is complete, the calling thread waits for it.
+ * </p>
+ * <p>
+ * The loaded children of a node are kept until its last child is requested (or, for a leaf, until its child count is
+ * requested). The number of the kept nodes is bounded - when the bound is reached, no more loads are started in
+ * background and the missing children are loaded on the calling thread. The remaining loaded children are discarded
+ * when the iteration starts and when it completes (see {@link #startListeningForChanges()}), so an iteration which
+ * was terminated early (for example, by {@link java.util.stream.Stream#findFirst()}) does not leave its loaded
+ * children to the next one.
+ * </p>
+ * <p>
+ * The decorator does not know which nodes the traversal will descend into - children of the nodes pruned by a
+ * descend filter or by a maximal depth are loaded in background as well. Their loads take the slots of the bound
+ * until the iteration completes, so this decorator is not suitable for traversals which prune most of the tree.
+ * </p>
+ * <p>
+ * The decorated structure is accessed from multiple threads, so it must be safe for concurrent reads.
+ * </p>
+ */
+public class PrefetchingTreeStructure implements TreeStructure {
+
+    public static final int DEFAULT_MAX_PREFETCHED_NODES = 1_000;
+
+    private static final Object[] NO_CHILDREN = new Object[0];
+
+    private final TreeStructure treeStructure;
+    private final Executor executor;
+    private final int maxPrefetchedNodes;
+
+    /**
+     * Maps node to its children (loaded or being loaded).
+     */
+    private final Map<Object, Children> children = new ConcurrentHashMap<>();
+
+    /**
+     * Children of a node (loaded or being loaded).
+     */
+    private static final class Children {
+        final CompletableFuture<Object[]> future;
+
+        /**
+         * Whether the loads of the children of these children were started.
+         */
+        final AtomicBoolean prefetched = new AtomicBoolean();
+
+        Children(CompletableFuture<Object[]> future) {
+            this.future = future;
+        }
+    }
+
+    /**
+     * Creates structure which loads children with the default executor - virtual thread per task executor when
+     * running on JDK which supports virtual threads, otherwise cached pool of daemon threads.
+     *
+     * @param treeStructure Tree structure to decorate. Not null.
+     */
+    public PrefetchingTreeStructure(TreeStructure treeStructure) {
+        this(treeStructure, DefaultExecutorHolder.EXECUTOR, DEFAULT_MAX_PREFETCHED_NODES);
+    }
+
+    /**
+     * @param treeStructure Tree structure to decorate. Not null.
+     * @param executor Executor to load children in background. Not null.
+     * @param maxPrefetchedNodes Maximal number of nodes which children are loaded in advance. Must be positive.
+     */
+    public PrefetchingTreeStructure(TreeStructure treeStructure, Executor executor, int maxPrefetchedNodes) {
+        this.treeStructure = Objects.requireNonNull(treeStructure);
+        this.executor = Objects.requireNonNull(executor);
+        if (maxPrefetchedNodes < 1) {
+            throw new IllegalArgumentException("Max prefetched nodes must be positive: " + maxPrefetchedNodes);
+        }
+        this.maxPrefetchedNodes = maxPrefetchedNodes;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public int getMaxPrefetchedNodes() {
+        return maxPrefetchedNodes;
+    }
+
+    private Object[] load(Object parent) {
+        final int childCount = treeStructure.getChildCount(parent);
+        if (childCount == 0) {
+            return NO_CHILDREN;
+        }
+        Object[] loaded = new Object[childCount];
+        for (int i = 0; i < childCount; i++) {
+            loaded[i] = treeStructure.getChild(parent, i);
+        }
+        return loaded;
+    }
+
+    private Object[] getChildren(Object parent) {
+        final Children entry = children.get(parent);
+        final Object[] nodeChildren;
+        if (entry != null) {
+            try {
+                nodeChildren = entry.future.join();
+            } catch (CompletionException e) {
+                children.remove(parent, entry);
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException(cause);
+            }
+            if (entry.prefetched.compareAndSet(false, true)) {
+                prefetch(nodeChildren);
+            }
+        } else {
+            nodeChildren = load(parent);
+            if (nodeChildren.length > 0) {
+                Children loaded = new Children(CompletableFuture.completedFuture(nodeChildren));
+                loaded.prefetched.set(true);
+                children.put(parent, loaded);
+                prefetch(nodeChildren);
+            }
+        }
+        return nodeChildren;
+    }
+
+    /**
+     * Invoked once for the children of each node, when they are requested for the first time - before any of them is
+     * consumed, so a consumed node is never loaded again.
+     */
+    private void prefetch(Object[] nodes) {
+        for (Object node : nodes) {
+            if (children.size() >= maxPrefetchedNodes) {
+                return;
+            }
+            children.computeIfAbsent(node,
+                    n -> new Children(CompletableFuture.supplyAsync(() -> load(n), executor)));
+        }
+    }
+
+    @Override
+    public Object getRoot() {
+        return treeStructure.getRoot();
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        Object[] nodeChildren = getChildren(parent);
+        if (index == nodeChildren.length - 1) {
+            children.remove(parent);
+        }
+        return nodeChildren[index];
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        Object[] nodeChildren = getChildren(parent);
+        if (nodeChildren.length == 0) {
+            children.remove(parent);
+        }
+        return nodeChildren.length;
+    }
+
+    /**
+     * Discards the children loaded by the previous iteration, if it was not completed.
+     */
+    @Override
+    public void startListeningForChanges() {
+        clear();
+        treeStructure.startListeningForChanges();
+    }
+
+    /**
+     * Discards the loaded children and cancels the loads which are not started yet.
+     */
+    @Override
+    public void stopListeningForChanges() {
+        treeStructure.stopListeningForChanges();
+        clear();
+    }
+
+    @Override
+    public boolean isChangeDetected() {
+        return treeStructure.isChangeDetected();
+    }
+
+    /**
+     * Discards the loaded children and cancels the loads which are not started yet.
+     */
+    public void clear() {
+        children.values().forEach(entry -> entry.future.cancel(false));
+        children.clear();
+    }
+
+    private static final class DefaultExecutorHolder {
+        static final Executor EXECUTOR = createExecutor();
+
+        private static Executor createExecutor() {
+            try {
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (Executor) method.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // virtual threads are not supported by this JDK
+            }
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "tree-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
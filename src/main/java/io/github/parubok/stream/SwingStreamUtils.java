@@ -9,26 +9,48 @@ import javax.swing.SwingUtilities;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
 import javax.swing.table.TableModel;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreePath;
 import java.awt.Component;
+import java.awt.Container;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.ConcurrentModificationException;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.IntFunction;
 import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -46,6 +68,11 @@ public final class SwingStreamUtils {
 
     public static final TreeTraversalType DEFAULT_TREE_TRAVERSAL_TYPE = TreeTraversalType.PRE_ORDER;
 
+    /**
+     * Default duration of a slice for {@link #forEachOnEdt(Stream, Consumer)}, in milliseconds.
+     */
+    public static final long DEFAULT_EDT_SLICE_MILLIS = 10;
+
     private SwingStreamUtils() {
     }
 
@@ -206,6 +233,138 @@ public final class SwingStreamUtils {
         return stream(tree, DEFAULT_TREE_TRAVERSAL_TYPE);
     }
 
+    /**
+     * Iterates over paths of the provided {@link JTree} which are currently displayed (i.e. all their ancestors are
+     * expanded), in the display order. Collapsed subtrees are not traversed - children of collapsed nodes are not
+     * requested from the tree model, so lazily loaded nodes are not loaded by the iteration. The root path is
+     * included only if the root is visible (see {@link JTree#isRootVisible()}).
+     * <p>
+     * <b>Note:</b> Must be invoked on EDT. The expansion state is captured when the iterator is created. The tree
+     * structure should not change during the iteration.
+     * </p>
+     *
+     * @param tree Tree which paths to iterate. Not null.
+     * @return Iterable over the displayed paths of the tree.
+     * @see #streamVisiblePaths(JTree)
+     */
+    public static Iterable<KTreePath> getVisiblePathsIterable(JTree tree) {
+        requireNonNull(tree, "tree");
+        return () -> {
+            final TreeModel model = tree.getModel();
+            final Object root = model != null ? model.getRoot() : null;
+            if (root == null) {
+                return emptyIterator();
+            }
+            // JTree.isExpanded checks all ancestors of the path, so it is cheaper to collect the expanded paths once:
+            final Set<TreePath> expandedPaths = new HashSet<>();
+            Enumeration<TreePath> expandedDescendants = tree.getExpandedDescendants(new TreePath(root));
+            if (expandedDescendants != null) {
+                while (expandedDescendants.hasMoreElements()) {
+                    expandedPaths.add(expandedDescendants.nextElement());
+                }
+            }
+            Iterator<KTreePath> iterator = asIterable(model, TreeTraversalType.PRE_ORDER, expandedPaths::contains)
+                    .iterator();
+            if (!tree.isRootVisible()) {
+                iterator.next(); // skip the root path
+            }
+            return iterator;
+        };
+    }
+
+    /**
+     * Streams paths of the provided {@link JTree} which are currently displayed, in the display order.
+     * Must be invoked on EDT.
+     *
+     * @param tree Tree which paths to stream. Not null.
+     * @return Stream of the displayed paths of the tree.
+     * @see #getVisiblePathsIterable(JTree)
+     */
+    public static Stream<KTreePath> streamVisiblePaths(JTree tree) {
+        return iterable2stream(getVisiblePathsIterable(tree));
+    }
+
+    /**
+     * Expands the provided paths of the tree as a single batch: the tree does not scroll after each expansion, and
+     * the repainting requested on each expansion is coalesced by {@link javax.swing.RepaintManager}. The tree UI
+     * still updates its layout for each expanded path, and the expansion listeners of the tree are notified for each
+     * expanded path. Must be invoked on EDT.
+     *
+     * @param tree Tree which paths to expand. Not null.
+     * @param paths Paths to expand (with their ancestors). Not null.
+     * @see JTree#expandPath(TreePath)
+     */
+    public static void expandPaths(JTree tree, Stream<? extends TreePath> paths) {
+        requireNonNull(tree, "tree");
+        TreeExpansion.expand(tree, paths.collect(Collectors.toList()));
+    }
+
+    /**
+     * Expands all paths of the tree model which satisfy the predicate, as a single batch. Must be invoked on EDT.
+     *
+     * @param tree Tree which paths to expand. Not null.
+     * @param predicate Selects paths to expand. Not null.
+     * @see #expandPaths(JTree, Stream)
+     */
+    public static void expandPaths(JTree tree, Predicate<? super KTreePath> predicate) {
+        requireNonNull(predicate, "predicate");
+        expandPaths(tree, stream(tree).filter(predicate));
+    }
+
+    /**
+     * Collapses the provided paths of the tree as a single batch. The paths which are not expanded are skipped.
+     * Must be invoked on EDT.
+     *
+     * @param tree Tree which paths to collapse. Not null.
+     * @param paths Paths to collapse. Not null.
+     * @see #expandPaths(JTree, Stream)
+     */
+    public static void collapsePaths(JTree tree, Stream<? extends TreePath> paths) {
+        requireNonNull(tree, "tree");
+        TreeExpansion.collapse(tree, paths.collect(Collectors.toList()));
+    }
+
+    /**
+     * Collapses the displayed expanded paths of the tree (i.e. the expanded paths which ancestors are expanded) which
+     * satisfy the predicate, as a single batch. As with {@link JTree#collapsePath(TreePath)}, the expanded paths under
+     * a collapsed ancestor keep their state and are displayed expanded when the ancestor is expanded. Must be invoked
+     * on EDT.
+     *
+     * @param tree Tree which paths to collapse. Not null.
+     * @param predicate Selects paths to collapse. Not null.
+     * @see #collapsePaths(JTree, Stream)
+     */
+    public static void collapsePaths(JTree tree, Predicate<? super KTreePath> predicate) {
+        requireNonNull(predicate, "predicate");
+        collapsePaths(tree, streamVisiblePaths(tree).filter(tree::isExpanded).filter(predicate));
+    }
+
+    /**
+     * Returns compact representation of the expansion state of the tree - the expanded paths which have no expanded
+     * descendants (their ancestors are expanded implicitly). Must be invoked on EDT.
+     *
+     * @param tree Tree which expansion state to return. Not null.
+     * @return Expanded paths without expanded descendants.
+     * @see #setExpandedPaths(JTree, Collection)
+     */
+    public static Set<TreePath> getExpandedPaths(JTree tree) {
+        requireNonNull(tree, "tree");
+        return TreeExpansion.getExpandedPaths(tree);
+    }
+
+    /**
+     * Restores the expansion state of the tree: expands the provided paths with their ancestors and collapses the rest
+     * of the expanded paths, as a single batch. Must be invoked on EDT.
+     *
+     * @param tree Tree which expansion state to set. Not null.
+     * @param paths Paths to expand, for example, the paths returned by {@link #getExpandedPaths(JTree)}. Not null.
+     */
+    public static void setExpandedPaths(JTree tree, Collection<? extends TreePath> paths) {
+        requireNonNull(tree, "tree");
+        requireNonNull(paths, "paths");
+        TreeExpansion.setExpandedPaths(tree, paths);
+    }
+
     /**
      * Streams paths of the provided {@link TreeModel}.
      * <p>
@@ -214,7 +373,7 @@ public final class SwingStreamUtils {
      *
      * @param treeModel Tree model to stream. Not null.
      * @param traversalType Specifies order of the tree traversal. Not null.
-     * @return Stream of paths of the provided tree model. The traversing is performed using depth-first search.
+     * @return Stream of paths of the provided tree model in the order specified by the traversal type.
      * @see #asIterable(TreeModel)
      * @see TreePath
      */
@@ -222,6 +381,31 @@ public final class SwingStreamUtils {
         return iterable2stream(asIterable(treeModel, traversalType));
     }
 
+    /**
+     * Streams paths of the provided {@link TreeModel} up to the specified depth.
+     *
+     * @param maxDepth Maximal depth of the streamed paths (0 for the root path). Children of nodes at this depth are
+     * not requested from the model.
+     * @see #stream(TreeModel, TreeTraversalType)
+     */
+    public static Stream<KTreePath> stream(TreeModel treeModel, TreeTraversalType traversalType, int maxDepth) {
+        return iterable2stream(asIterable(treeModel, traversalType, maxDepth));
+    }
+
+    /**
+     * Streams paths of the provided {@link TreeModel} without descending into the subtrees rejected by the specified
+     * filter. Unlike {@link Stream#filter(Predicate)}, the filter prevents the traversal of the subtree - children of
+     * the rejected paths are not requested from the model.
+     *
+     * @param descendFilter Decides whether to descend into children of the last component of a path. The rejected
+     * paths themselves are streamed. Not null.
+     * @see #stream(TreeModel, TreeTraversalType)
+     */
+    public static Stream<KTreePath> stream(TreeModel treeModel, TreeTraversalType traversalType,
+                                           Predicate<? super KTreePath> descendFilter) {
+        return iterable2stream(asIterable(treeModel, traversalType, descendFilter));
+    }
+
     /**
      * @see #stream(TreeModel, TreeTraversalType)
      */
@@ -237,7 +421,7 @@ public final class SwingStreamUtils {
      *
      * @param treeStructure Tree structure to stream. Not null.
      * @param traversalType Specifies order of the tree traversal. Not null.
-     * @return Stream of paths of the provided tree structure. The traversing is performed using depth-first search.
+     * @return Stream of paths of the provided tree structure in the order specified by the traversal type.
      * @see #asIterable(TreeStructure)
      * @see TreePath
      */
@@ -245,6 +429,32 @@ public final class SwingStreamUtils {
         return iterable2stream(asIterable(treeStructure, traversalType));
     }
 
+    /**
+     * Streams paths of the provided {@link TreeStructure} up to the specified depth.
+     *
+     * @param maxDepth Maximal depth of the streamed paths (0 for the root path). Children of nodes at this depth are
+     * not requested from the tree structure.
+     * @see #stream(TreeStructure, TreeTraversalType)
+     */
+    public static Stream<KTreePath> stream(TreeStructure treeStructure, TreeTraversalType traversalType,
+                                           int maxDepth) {
+        return iterable2stream(asIterable(treeStructure, traversalType, maxDepth));
+    }
+
+    /**
+     * Streams paths of the provided {@link TreeStructure} without descending into the subtrees rejected by the
+     * specified filter. Unlike {@link Stream#filter(Predicate)}, the filter prevents the traversal of the subtree -
+     * children of the rejected paths are not requested from the tree structure.
+     *
+     * @param descendFilter Decides whether to descend into children of the last component of a path. The rejected
+     * paths themselves are streamed. Not null.
+     * @see #stream(TreeStructure, TreeTraversalType)
+     */
+    public static Stream<KTreePath> stream(TreeStructure treeStructure, TreeTraversalType traversalType,
+                                           Predicate<? super KTreePath> descendFilter) {
+        return iterable2stream(asIterable(treeStructure, traversalType, descendFilter));
+    }
+
     /**
      * @see #stream(TreeStructure, TreeTraversalType)
      */
@@ -252,6 +462,117 @@ public final class SwingStreamUtils {
         return stream(treeStructure, DEFAULT_TREE_TRAVERSAL_TYPE);
     }
 
+    /**
+     * Creates parallel stream of paths of the provided {@link TreeStructure} in {@link TreeTraversalType#PRE_ORDER}.
+     * The stream splits the tree into whole unvisited subtrees which are traversed by different threads (it may be
+     * switched to sequential mode with {@link Stream#sequential()}).
+     * <p>
+     * <b>Note:</b> The tree structure is accessed from multiple threads, so it must be immutable (for example,
+     * {@link TreeSnapshot}) and safe for concurrent reads. Modifications of the tree structure are not detected.
+     * </p>
+     *
+     * @param treeStructure Tree structure to stream. Not null.
+     * @return Parallel stream of paths of the provided tree structure.
+     * @see #stream(TreeStructure)
+     */
+    public static Stream<KTreePath> parallelStream(TreeStructure treeStructure) {
+        return parallelStream(treeStructure, path -> true);
+    }
+
+    /**
+     * @param maxDepth Maximal depth of the streamed paths (0 for the root path). Children of nodes at this depth are
+     * not requested from the tree structure.
+     * @see #parallelStream(TreeStructure)
+     */
+    public static Stream<KTreePath> parallelStream(TreeStructure treeStructure, int maxDepth) {
+        return parallelStream(treeStructure, TreeTraversalType.maxDepthFilter(maxDepth));
+    }
+
+    /**
+     * @param descendFilter Decides whether to descend into children of the last component of a path. Children of
+     * the rejected paths are not streamed and not requested from the tree structure. Invoked from multiple threads.
+     * @see #parallelStream(TreeStructure)
+     */
+    public static Stream<KTreePath> parallelStream(TreeStructure treeStructure,
+                                                   Predicate<? super KTreePath> descendFilter) {
+        return StreamSupport.stream(new TreeStructureSpliterator(treeStructure, descendFilter), true);
+    }
+
+    /**
+     * Searches the provided {@link TreeStructure} in parallel (see {@link #parallelStream(TreeStructure)}) in the
+     * common {@link ForkJoinPool}.
+     *
+     * @return The first path in {@link TreeTraversalType#PRE_ORDER} which matches the predicate or empty optional.
+     * @see #findFirst(TreeStructure, Predicate, ForkJoinPool)
+     */
+    public static Optional<KTreePath> findFirst(TreeStructure treeStructure, Predicate<? super KTreePath> predicate) {
+        return findFirst(treeStructure, predicate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Searches the provided {@link TreeStructure} in parallel - subtrees are searched by the threads of the specified
+     * pool and the outstanding work is cancelled once the match is found (and there is no preceding subtree to
+     * search).
+     * <p>
+     * <b>Note:</b> The predicate is invoked from multiple threads.
+     * </p>
+     *
+     * @param treeStructure Tree structure to search. Not null.
+     * @param predicate Predicate to match paths. Not null.
+     * @param pool Pool to search in. Not null.
+     * @return The first path in {@link TreeTraversalType#PRE_ORDER} which matches the predicate or empty optional.
+     * @see #parallelStream(TreeStructure)
+     */
+    public static Optional<KTreePath> findFirst(TreeStructure treeStructure, Predicate<? super KTreePath> predicate,
+                                                ForkJoinPool pool) {
+        requireNonNull(predicate, "predicate");
+        return search(pool, () -> parallelStream(treeStructure).filter(predicate).findFirst());
+    }
+
+    /**
+     * @see #findAny(TreeStructure, Predicate, ForkJoinPool)
+     */
+    public static Optional<KTreePath> findAny(TreeStructure treeStructure, Predicate<? super KTreePath> predicate) {
+        return findAny(treeStructure, predicate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like {@link #findFirst(TreeStructure, Predicate, ForkJoinPool)}, but the search stops once any matching path
+     * is found.
+     *
+     * @return Any path which matches the predicate or empty optional.
+     */
+    public static Optional<KTreePath> findAny(TreeStructure treeStructure, Predicate<? super KTreePath> predicate,
+                                              ForkJoinPool pool) {
+        requireNonNull(predicate, "predicate");
+        return search(pool, () -> parallelStream(treeStructure).filter(predicate).findAny());
+    }
+
+    /**
+     * @see #findAll(TreeStructure, Predicate, ForkJoinPool)
+     */
+    public static List<KTreePath> findAll(TreeStructure treeStructure, Predicate<? super KTreePath> predicate) {
+        return findAll(treeStructure, predicate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Searches the whole {@link TreeStructure} in parallel in the specified pool.
+     *
+     * @return List of the paths which match the predicate in {@link TreeTraversalType#PRE_ORDER}.
+     * @see #findFirst(TreeStructure, Predicate, ForkJoinPool)
+     */
+    public static List<KTreePath> findAll(TreeStructure treeStructure, Predicate<? super KTreePath> predicate,
+                                          ForkJoinPool pool) {
+        requireNonNull(predicate, "predicate");
+        return search(pool, () -> parallelStream(treeStructure).filter(predicate).collect(Collectors.toList()));
+    }
+
+    private static <T> T search(ForkJoinPool pool, Supplier<T> search) {
+        requireNonNull(pool, "pool");
+        // stream tasks are forked into the pool of the thread which runs the terminal operation:
+        return pool.invoke(ForkJoinTask.adapt(search::get));
+    }
+
     /**
      * @see #asIterable(TreeModel, TreeTraversalType)
      */
@@ -268,13 +589,34 @@ public final class SwingStreamUtils {
      * The listener is removed after the iteration finishes or when modification is detected.
      * @param treeModel Tree model to iterate. Not null.
      * @param traversalType Specifies order of the tree traversal. Not null.
-     * @return Iterable to iterate over paths of the provided tree model using depth-first search.
+     * @return Iterable to iterate over paths of the provided tree model in the order specified by the traversal type.
      * @see TreePath
      */
     public static Iterable<KTreePath> asIterable(TreeModel treeModel, TreeTraversalType traversalType) {
         return asIterable(treeModel, traversalType, true);
     }
 
+    /**
+     * @param maxDepth Maximal depth of the iterated paths (0 for the root path). Children of nodes at this depth are
+     * not requested from the model.
+     * @see #asIterable(TreeModel, TreeTraversalType)
+     */
+    public static Iterable<KTreePath> asIterable(TreeModel treeModel, TreeTraversalType traversalType, int maxDepth) {
+        requireNonNull(treeModel);
+        return asIterable(new TreeModelTreeStructure(treeModel, true), traversalType, maxDepth);
+    }
+
+    /**
+     * @param descendFilter Decides whether to descend into children of the last component of a path. Children of
+     * the rejected paths are not iterated and not requested from the model. Not null.
+     * @see #asIterable(TreeModel, TreeTraversalType)
+     */
+    public static Iterable<KTreePath> asIterable(TreeModel treeModel, TreeTraversalType traversalType,
+                                                 Predicate<? super KTreePath> descendFilter) {
+        requireNonNull(treeModel);
+        return asIterable(new TreeModelTreeStructure(treeModel, true), traversalType, descendFilter);
+    }
+
     /**
      * @param failOnModification If {@code false}, the iterator does not check for the tree model modifications during
      * iteration. Should be {@code true} in most cases.
@@ -299,13 +641,104 @@ public final class SwingStreamUtils {
      *
      * @param treeStructure Tree structure to iterate. Not null.
      * @param traversalType Specifies order of the tree traversal. Not null.
-     * @return Iterable to iterate over paths of the provided tree structure using depth-first search.
+     * @return Iterable to iterate over paths of the provided tree structure in the order specified by the traversal
+     * type.
      * @see TreePath
      */
     public static Iterable<KTreePath> asIterable(TreeStructure treeStructure, TreeTraversalType traversalType) {
         return new TreeStructureIterable(treeStructure, traversalType);
     }
 
+    /**
+     * @param maxDepth Maximal depth of the iterated paths (0 for the root path). Children of nodes at this depth are
+     * not requested from the tree structure.
+     * @see #asIterable(TreeStructure, TreeTraversalType)
+     */
+    public static Iterable<KTreePath> asIterable(TreeStructure treeStructure, TreeTraversalType traversalType,
+                                                 int maxDepth) {
+        return new TreeStructureIterable(treeStructure, traversalType, maxDepth);
+    }
+
+    /**
+     * @param descendFilter Decides whether to descend into children of the last component of a path. Children of
+     * the rejected paths are not iterated and not requested from the tree structure. Not null.
+     * @see #asIterable(TreeStructure, TreeTraversalType)
+     */
+    public static Iterable<KTreePath> asIterable(TreeStructure treeStructure, TreeTraversalType traversalType,
+                                                 Predicate<? super KTreePath> descendFilter) {
+        return new TreeStructureIterable(treeStructure, traversalType, descendFilter);
+    }
+
+    /**
+     * Walks the provided {@link TreeStructure} with the specified visitor. Nodes are entered in pre-order and left in
+     * post-order. Unlike {@link #stream(TreeStructure)}, the walk does not create {@link KTreePath} (or any other
+     * object) per node.
+     * <p>
+     * <b>Note:</b> The tree structure should not change during the walk.
+     * </p>
+     *
+     * @param treeStructure Tree structure to walk. Not null.
+     * @param visitor Visitor to invoke for each node. Not null.
+     * @return False if the walk was stopped by {@link TreeVisitResult#TERMINATE}, true otherwise.
+     * @see TreeVisitor
+     */
+    public static boolean walk(TreeStructure treeStructure, TreeVisitor visitor) {
+        return new TreeStructureWalker(treeStructure, visitor).walk();
+    }
+
+    /**
+     * Walks the provided {@link TreeModel} with the specified visitor.
+     *
+     * @implNote Adds {@link javax.swing.event.TreeModelListener} to check for modifications during the walk.
+     * The listener is removed when the walk ends.
+     * @see #walk(TreeStructure, TreeVisitor)
+     */
+    public static boolean walk(TreeModel treeModel, TreeVisitor visitor) {
+        requireNonNull(treeModel);
+        return walk(new TreeModelTreeStructure(treeModel, true), visitor);
+    }
+
+    /**
+     * Creates stream of node ids of the provided {@link IntTreeStructure}. Unlike {@link #stream(TreeStructure)},
+     * neither paths nor boxed nodes are created. The ids are not required to be unique (for example, a shared
+     * sub-assembly of a bill of materials), so the stream may contain duplicates.
+     *
+     * @param treeStructure Tree structure to stream. Not null.
+     * @param traversalType Order of the streamed ids. Not null.
+     * @return Stream of node ids.
+     * @see #forEach(IntTreeStructure, TreeTraversalType, IntTreeNodeConsumer)
+     */
+    public static IntStream stream(IntTreeStructure treeStructure, TreeTraversalType traversalType) {
+        IntTreeStructureIterator iterator = new IntTreeStructureIterator(treeStructure, traversalType);
+        return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED), false);
+    }
+
+    /**
+     * @see #stream(IntTreeStructure, TreeTraversalType)
+     */
+    public static IntStream stream(IntTreeStructure treeStructure) {
+        return stream(treeStructure, DEFAULT_TREE_TRAVERSAL_TYPE);
+    }
+
+    /**
+     * Invokes the consumer for each node of the provided {@link IntTreeStructure} in the order specified by the
+     * traversal type. No objects are created per node.
+     *
+     * @param treeStructure Tree structure to traverse. Not null.
+     * @param traversalType Order of the nodes. Not null.
+     * @param consumer Consumer to invoke with id and depth of each node. Not null.
+     */
+    public static void forEach(IntTreeStructure treeStructure, TreeTraversalType traversalType,
+                               IntTreeNodeConsumer consumer) {
+        requireNonNull(consumer, "consumer");
+        IntTreeStructureIterator iterator = new IntTreeStructureIterator(treeStructure, traversalType);
+        while (iterator.hasNext()) {
+            final int node = iterator.nextInt();
+            consumer.accept(node, iterator.getDepth());
+        }
+    }
+
     /**
      * @return {@link Iterable} over combo box items of the provided model.
      * @see ComboBoxItem
@@ -725,6 +1158,202 @@ public final class SwingStreamUtils {
         return model;
     }
 
+    /**
+     * Stream collector to create {@link DefaultTreeModel} from elements which refer to their parents by key. Each
+     * element becomes user object of {@link DefaultMutableTreeNode}, the children of a node are in the order of the
+     * stream. Works on the current thread - the new model has no listeners, so no events are fired.
+     *
+     * @param keyMapper Returns key of an element. The keys must be unique and not null.
+     * @param parentKeyMapper Returns key of the parent element of an element or null if the element is a child of
+     * the root.
+     * @param rootUserObject User object of the root node. May be null.
+     * @param <T> Type of the stream elements.
+     * @param <K> Type of the keys.
+     * @return The new tree model.
+     * @throws IllegalStateException If there is a duplicate key, a parent key without element or a cycle.
+     */
+    public static <T, K> Collector<T, List<T>, DefaultTreeModel> toTreeModel(Function<? super T, ? extends K> keyMapper,
+                                                                             Function<? super T, ? extends K> parentKeyMapper,
+                                                                             Object rootUserObject) {
+        requireNonNull(keyMapper);
+        requireNonNull(parentKeyMapper);
+        return toListCollector(data -> new DefaultTreeModel(createTree(data, keyMapper, parentKeyMapper,
+                rootUserObject)));
+    }
+
+    /**
+     * Stream collector to publish tree of elements which refer to their parents by key in {@link DefaultTreeModel}.
+     * The tree is built on the current thread and then set as root of the supplied model on EDT, so the model fires
+     * a single {@link javax.swing.event.TreeModelListener#treeStructureChanged} event.
+     *
+     * @param modelSupplier Supplies the model to set the root of (for example, model of an existing
+     * {@link JTree}). Called on EDT.
+     * @param <M> Type of the tree model.
+     * @see #toTreeModel(Function, Function, Object)
+     */
+    public static <T, K, M extends DefaultTreeModel> Collector<T, List<T>, M> toTreeModel(Supplier<M> modelSupplier,
+                                                                                          Function<? super T, ? extends K> keyMapper,
+                                                                                          Function<? super T, ? extends K> parentKeyMapper,
+                                                                                          Object rootUserObject) {
+        requireNonNull(modelSupplier);
+        requireNonNull(keyMapper);
+        requireNonNull(parentKeyMapper);
+        return toListCollector(data -> {
+            final DefaultMutableTreeNode root = createTree(data, keyMapper, parentKeyMapper, rootUserObject);
+            final AtomicReference<M> modelRef = new AtomicReference<>();
+            try {
+                Runnable finisherTask = () -> {
+                    M model = requireNonNull(modelSupplier.get(), "model");
+                    model.setRoot(root);
+                    modelRef.set(model);
+                };
+                // Swing components must be created/accessed on EDT:
+                if (SwingUtilities.isEventDispatchThread()) {
+                    finisherTask.run();
+                } else {
+                    SwingUtilities.invokeAndWait(finisherTask);
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } catch (InvocationTargetException e) {
+                throw new RuntimeException(e.getCause());
+            }
+            return modelRef.get();
+        });
+    }
+
+    /**
+     * Stream collector to create {@link DefaultTreeModel} from tree paths (for example, {@link KTreePath}s streamed
+     * from another tree). Each path component becomes user object of {@link DefaultMutableTreeNode} - the paths
+     * with the same parent path produce siblings in the order of the stream. The missing ancestor paths are created.
+     * Works on the current thread.
+     *
+     * @param <P> Type of the paths.
+     * @return The new tree model. Its root is null if the stream is empty.
+     * @throws IllegalStateException If the paths have different roots.
+     */
+    public static <P extends TreePath> Collector<P, List<P>, DefaultTreeModel> toTreeModel() {
+        return toListCollector(paths -> {
+            final Map<TreePath, DefaultMutableTreeNode> nodes = new HashMap<>();
+            DefaultMutableTreeNode root = null;
+            for (P path : paths) {
+                TreePath p = path;
+                DefaultMutableTreeNode child = null;
+                // create the missing nodes from the last component up:
+                while (p != null) {
+                    DefaultMutableTreeNode node = nodes.get(p);
+                    final boolean created = node == null;
+                    if (created) {
+                        node = new DefaultMutableTreeNode(p.getLastPathComponent());
+                        nodes.put(p, node);
+                    }
+                    if (child != null) {
+                        node.add(child);
+                    }
+                    if (!created) {
+                        break;
+                    }
+                    child = node;
+                    p = p.getParentPath();
+                }
+                if (p == null) {
+                    if (root != null) {
+                        throw new IllegalStateException("Paths have different roots: " + root.getUserObject()
+                                + ", " + child.getUserObject() + ".");
+                    }
+                    root = child;
+                }
+            }
+            return new DefaultTreeModel(root);
+        });
+    }
+
+    /**
+     * Updates the provided {@link DefaultTreeModel} to match the source tree, applying only the required insertions,
+     * removals and changes. Unlike replacing the model root, the nodes which remain in the tree (and so their
+     * expansion and selection state in {@link JTree}) are preserved.
+     * <p>
+     * Each node of the source tree corresponds to a {@link DefaultMutableTreeNode} with the source node as its user
+     * object. The nodes are matched by key: the key of a model node is computed from its user object, the key of a
+     * source node - from the node itself. The children of each parent must have distinct keys. For each parent, the
+     * removals, the insertions and the changes (the matched nodes with user objects which are not equal to the
+     * source nodes) are fired as single {@link DefaultTreeModel#nodesWereRemoved},
+     * {@link DefaultTreeModel#nodesWereInserted} and {@link DefaultTreeModel#nodesChanged} events. The matched
+     * children which changed their order are moved with their subtrees.
+     * </p>
+     * <p>
+     * <b>Note:</b> Must be invoked on EDT. The nodes of the model must be instances of
+     * {@link DefaultMutableTreeNode}.
+     * </p>
+     *
+     * @implNote Takes time linear in the number of nodes when the order of children with the same keys is unchanged.
+     * @param model Model to update. Not null.
+     * @param source Source tree. Not null.
+     * @param keyMapper Returns key of the user object of a model node or of a source node. Not null.
+     * @throws IllegalStateException If children of a source node have the same key. The model is not modified then.
+     */
+    public static void updateTreeModel(DefaultTreeModel model, TreeStructure source, Function<Object, ?> keyMapper) {
+        new TreeModelDiff(model, source, keyMapper).apply();
+    }
+
+    private static <T, K> DefaultMutableTreeNode createTree(List<T> data, Function<? super T, ? extends K> keyMapper,
+                                                            Function<? super T, ? extends K> parentKeyMapper,
+                                                            Object rootUserObject) {
+        final Map<K, DefaultMutableTreeNode> nodes = new HashMap<>(Math.max(16, data.size() * 4 / 3 + 1));
+        for (T element : data) {
+            K key = keyMapper.apply(element);
+            if (key == null) {
+                throw new IllegalStateException("Null key for element: " + element + ".");
+            }
+            if (nodes.put(key, new DefaultMutableTreeNode(element)) != null) {
+                throw new IllegalStateException("Duplicate key: " + key + ".");
+            }
+        }
+        final DefaultMutableTreeNode root = new DefaultMutableTreeNode(rootUserObject);
+        for (T element : data) {
+            final K parentKey = parentKeyMapper.apply(element);
+            final DefaultMutableTreeNode parent = parentKey != null ? nodes.get(parentKey) : root;
+            if (parent == null) {
+                throw new IllegalStateException("No element with parent key: " + parentKey + ".");
+            }
+            try {
+                parent.add(nodes.get(keyMapper.apply(element)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Cycle with key: " + parentKey + ".", e);
+            }
+        }
+        return root;
+    }
+
+    private static <T, R> Collector<T, List<T>, R> toListCollector(Function<List<T>, R> finisher) {
+        return new Collector<T, List<T>, R>() {
+            @Override
+            public Supplier<List<T>> supplier() {
+                return ArrayList::new;
+            }
+
+            @Override
+            public BiConsumer<List<T>, T> accumulator() {
+                return List::add;
+            }
+
+            @Override
+            public BinaryOperator<List<T>> combiner() {
+                return CombinedList::new;
+            }
+
+            @Override
+            public Set<Characteristics> characteristics() {
+                return emptySet();
+            }
+
+            @Override
+            public Function<List<T>, R> finisher() {
+                return finisher;
+            }
+        };
+    }
+
     /**
      * Note: Must be invoked on EDT. The component hierarchy should not change during the iteration.
      *
@@ -734,8 +1363,32 @@ public final class SwingStreamUtils {
      */
     public static Iterable<Component> getDescendantsIterable(Component root) {
         requireNonNull(root, "root");
-        return () -> new Iterator<Component>() {
-            private final Iterator<KTreePath> pathIterator = asIterable(new ComponentTreeStructure(root)).iterator();
+        return () -> componentIterator(new ComponentTreeStructure(root));
+    }
+
+    /**
+     * Iterates over the descendant components accepted by the filter, pruning the rejected subtrees - the descendants
+     * of a rejected component are not traversed (and not returned even if accepted).
+     * <p>
+     * <b>Note:</b> Must be invoked on EDT. The component hierarchy should not change during the iteration.
+     * </p>
+     *
+     * @param root Root parent component. Not null.
+     * @param filter Accepts components which subtrees to traverse. Evaluated once per traversed component. Not null.
+     * @return Iterable which iterates over the accepted descendant components in the root component (incl. the root
+     * itself - if accepted). Iteration order: depth-first search.
+     * @see #getDescendantsIterable(Component)
+     */
+    public static Iterable<Component> getDescendantsIterable(Component root, Predicate<? super Component> filter) {
+        requireNonNull(root, "root");
+        requireNonNull(filter, "filter");
+        return () -> filter.test(root) ? componentIterator(new ComponentTreeStructure(root, filter))
+                : emptyIterator();
+    }
+
+    private static Iterator<Component> componentIterator(ComponentTreeStructure treeStructure) {
+        return new Iterator<Component>() {
+            private final Iterator<KTreePath> pathIterator = asIterable(treeStructure).iterator();
 
             @Override
             public boolean hasNext() {
@@ -749,6 +1402,19 @@ public final class SwingStreamUtils {
         };
     }
 
+    /**
+     * Note: The returned model must be used on EDT. Call {@link TreeStructureTreeModel#nodeStructureChanged(TreePath)}
+     * when the component hierarchy changes.
+     *
+     * @param root Root component. Not null.
+     * @return Tree model of the component hierarchy of the root component, for example, to be displayed in
+     * {@link JTree}.
+     */
+    public static TreeStructureTreeModel asTreeModel(Component root) {
+        requireNonNull(root, "root");
+        return new TreeStructureTreeModel(new ComponentTreeStructure(root, false));
+    }
+
     /**
      * Note: Must be invoked on EDT. The component hierarchy should not change during streaming.
      *
@@ -760,4 +1426,120 @@ public final class SwingStreamUtils {
     public static Stream<Component> streamDescendants(Component parent) {
         return iterable2stream(getDescendantsIterable(parent));
     }
+
+    /**
+     * Must be invoked on EDT.
+     *
+     * @param parent Parent container. Not null.
+     * @param filter Accepts components which subtrees to stream. Not null.
+     * @return Stream of the descendant components accepted by the filter, without the subtrees of the rejected ones.
+     * @see #getDescendantsIterable(Component, Predicate)
+     */
+    public static Stream<Component> streamDescendants(Component parent, Predicate<? super Component> filter) {
+        return iterable2stream(getDescendantsIterable(parent, filter));
+    }
+
+    /**
+     * Must be invoked on EDT.
+     *
+     * @param parent Parent container. Not null.
+     * @return Stream of the visible descendant components (incl. the parent itself) which ancestors (up to the parent)
+     * are visible. The subtrees of the invisible components are not traversed.
+     * @see Component#isVisible()
+     */
+    public static Stream<Component> streamVisibleDescendants(Component parent) {
+        return streamDescendants(parent, Component::isVisible);
+    }
+
+    /**
+     * Must be invoked on EDT.
+     *
+     * @param parent Parent container. Not null.
+     * @return Stream of the showing descendant components (incl. the parent itself). Empty if the parent is not
+     * showing. The subtrees of the not showing components are not traversed.
+     * @see Component#isShowing()
+     */
+    public static Stream<Component> streamShowingDescendants(Component parent) {
+        requireNonNull(parent, "parent");
+        // a visible child of a showing component is showing, so only the parent needs the full check:
+        return parent.isShowing() ? streamVisibleDescendants(parent) : Stream.empty();
+    }
+
+    /**
+     * Must be invoked on EDT.
+     *
+     * @param parent Parent container. Not null.
+     * @param area Area in the coordinate space of the parent. Not null.
+     * @return Stream of the visible descendant components (incl. the parent itself) which bounds intersect the area
+     * clipped by the bounds of their ancestors (for example, a component of a scrolled {@link javax.swing.JViewport}
+     * view is skipped if it is outside of the viewport). The subtrees of the invisible components and of the
+     * components outside the clipped area are not traversed.
+     */
+    public static Stream<Component> streamVisibleDescendants(Component parent, Rectangle area) {
+        requireNonNull(parent, "parent");
+        requireNonNull(area, "area");
+        return iterable2stream(() -> {
+            // location and visible part (the area clipped by the ancestors) of the accepted containers in the
+            // coordinate space of the parent:
+            final Map<Component, Point> locations = new IdentityHashMap<>();
+            final Map<Component, Rectangle> clips = new IdentityHashMap<>();
+            final Predicate<Component> filter = c -> {
+                if (!c.isVisible()) {
+                    return false;
+                }
+                final Rectangle bounds;
+                final Rectangle parentClip;
+                if (c == parent) {
+                    bounds = new Rectangle(0, 0, c.getWidth(), c.getHeight());
+                    parentClip = area;
+                } else {
+                    final Point parentLocation = locations.get(c.getParent());
+                    bounds = new Rectangle(parentLocation.x + c.getX(), parentLocation.y + c.getY(), c.getWidth(),
+                            c.getHeight());
+                    parentClip = clips.get(c.getParent());
+                }
+                if (!parentClip.intersects(bounds)) {
+                    return false;
+                }
+                if (c instanceof Container) {
+                    locations.put(c, bounds.getLocation());
+                    clips.put(c, parentClip.intersection(bounds));
+                }
+                return true;
+            };
+            return getDescendantsIterable(parent, filter).iterator();
+        });
+    }
+
+    /**
+     * Applies the action to the elements of the stream on EDT, in slices of the specified duration - each slice is
+     * a separate {@link SwingUtilities#invokeLater(Runnable)} task, so UI remains responsive during the processing.
+     * May be invoked on any thread. The stream is consumed on EDT, so it may be lazy stream of components, for
+     * example, the one returned by {@link #streamDescendants(Component)}.
+     * <p>
+     * To stop the processing, complete the returned future (for example, by {@link CompletableFuture#cancel(boolean)})
+     * - the remaining slices are skipped.
+     * </p>
+     *
+     * @param stream Stream of elements to process. Not null.
+     * @param action Action to apply to each element. Not null.
+     * @param sliceMillis Approximate maximal duration of a slice in milliseconds. Must be positive.
+     * @param progress Receives the number of the processed elements after each slice (on EDT). Not null.
+     * @return Future which is completed with the number of the processed elements, or exceptionally if the stream or
+     * the action has thrown exception.
+     */
+    public static <T> CompletableFuture<Integer> forEachOnEdt(Stream<T> stream, Consumer<? super T> action,
+                                                              long sliceMillis, IntConsumer progress) {
+        return new EdtBatch<>(stream, action, sliceMillis, progress).start();
+    }
+
+    /**
+     * Applies the action to the elements of the stream on EDT, in slices of {@link #DEFAULT_EDT_SLICE_MILLIS}.
+     *
+     * @see #forEachOnEdt(Stream, Consumer, long, IntConsumer)
+     */
+    public static <T> CompletableFuture<Integer> forEachOnEdt(Stream<T> stream, Consumer<? super T> action) {
+        return forEachOnEdt(stream, action, DEFAULT_EDT_SLICE_MILLIS, count -> {
+        });
+    }
 }
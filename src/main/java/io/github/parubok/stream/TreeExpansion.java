@@ -0,0 +1,150 @@
+package io.github.parubok.stream;
+
+import javax.swing.JTree;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bulk changes of expansion state of {@link JTree}.
+ * <p>
+ * When more than one path is changed, {@link JTree#getScrollsOnExpand()} is disabled for the duration of the change,
+ * so the tree does not scroll after each expansion. Only the scrolling and the repainting are coalesced: the
+ * revalidation and the repainting requested on each expansion are merged by {@link javax.swing.RepaintManager}, but
+ * the tree UI still updates its layout cache for each path, and the expansion listeners of the tree are notified for
+ * each path as usual.
+ * </p>
+ *
+ * @see SwingStreamUtils#expandPaths(JTree, java.util.stream.Stream)
+ */
+final class TreeExpansion {
+
+    /**
+     * Sorts paths from the deepest to the shallowest.
+     */
+    private static final Comparator<TreePath> DEEPEST_FIRST =
+            Comparator.comparingInt(TreePath::getPathCount).reversed();
+
+    private TreeExpansion() {
+    }
+
+    static void expand(JTree tree, Collection<? extends TreePath> paths) {
+        batch(tree, paths.size(), () -> {
+            for (TreePath path : paths) {
+                tree.expandPath(path);
+            }
+        });
+    }
+
+    /**
+     * Collapses the paths from the deepest, so collapsing of a path does not expand its collapsed ancestors. The paths
+     * which are not expanded are skipped.
+     */
+    static void collapse(JTree tree, Collection<? extends TreePath> paths) {
+        final List<TreePath> sorted = new ArrayList<>(paths);
+        sorted.sort(DEEPEST_FIRST);
+        batch(tree, sorted.size(), () -> {
+            for (TreePath path : sorted) {
+                if (tree.isExpanded(path)) {
+                    tree.collapsePath(path);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return The expanded paths which have no expanded descendants. Expanding them restores the expansion state of
+     * the tree since expansion of a path expands its ancestors.
+     */
+    static Set<TreePath> getExpandedPaths(JTree tree) {
+        final TreeModel model = tree.getModel();
+        final Object root = model != null ? model.getRoot() : null;
+        if (root == null) {
+            return new HashSet<>();
+        }
+        final List<TreePath> expanded = new ArrayList<>();
+        forEachExpanded(tree, new TreePath(root), expanded::add);
+        final Set<TreePath> parents = new HashSet<>();
+        for (TreePath path : expanded) {
+            parents.add(path.getParentPath());
+        }
+        final Set<TreePath> result = new HashSet<>();
+        for (TreePath path : expanded) {
+            if (!parents.contains(path)) {
+                result.add(path);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Makes the specified paths (and their ancestors) the only expanded paths of the tree. The paths are expanded
+     * first, so the expanded descendants of their collapsed ancestors are displayed and may be collapsed.
+     */
+    static void setExpandedPaths(JTree tree, Collection<? extends TreePath> paths) {
+        final TreeModel model = tree.getModel();
+        final Object root = model != null ? model.getRoot() : null;
+        if (root == null) {
+            return;
+        }
+        final Set<TreePath> keep = new HashSet<>();
+        for (TreePath path : paths) {
+            TreePath p = path;
+            while (p != null && keep.add(p)) { // stop on already added ancestor
+                p = p.getParentPath();
+            }
+        }
+        batch(tree, Integer.MAX_VALUE, () -> {
+            for (TreePath path : paths) {
+                tree.expandPath(path);
+            }
+            final List<TreePath> toCollapse = new ArrayList<>();
+            forEachExpanded(tree, new TreePath(root), path -> {
+                if (!keep.contains(path)) {
+                    toCollapse.add(path);
+                }
+            });
+            toCollapse.sort(DEEPEST_FIRST);
+            for (TreePath path : toCollapse) {
+                tree.collapsePath(path);
+            }
+        });
+    }
+
+    /**
+     * Passes the displayed expanded paths of the subtree (incl. the root path) to the action.
+     */
+    private static void forEachExpanded(JTree tree, TreePath rootPath, Consumer<TreePath> action) {
+        if (!tree.isExpanded(rootPath)) {
+            return;
+        }
+        action.accept(rootPath); // not included in the expanded descendants
+        final Enumeration<TreePath> expanded = tree.getExpandedDescendants(rootPath);
+        while (expanded.hasMoreElements()) {
+            action.accept(expanded.nextElement());
+        }
+    }
+
+    /**
+     * Runs the change with {@link JTree#getScrollsOnExpand()} disabled if it changes more than one path.
+     */
+    private static void batch(JTree tree, int changeCount, Runnable change) {
+        if (changeCount < 2 || !tree.getScrollsOnExpand()) {
+            change.run();
+            return;
+        }
+        tree.setScrollsOnExpand(false);
+        try {
+            change.run();
+        } finally {
+            tree.setScrollsOnExpand(true);
+        }
+    }
+}
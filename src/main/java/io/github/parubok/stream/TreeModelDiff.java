@@ -0,0 +1,253 @@
+package io.github.parubok.stream;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Updates {@link DefaultTreeModel} to match {@link TreeStructure} by node keys.
+ * <p>
+ * The children of each pair of matching parents are compared by key. The model children which keep their relative
+ * order are found as the longest increasing subsequence of their new indexes (or without any search if the order is
+ * unchanged), the rest of the matching children are moved (removed and inserted with their subtrees). The removals,
+ * the insertions and the changes of each parent are fired as a single event each, with sorted indexes.
+ * </p>
+ * <p>
+ * The keys of the source children are checked for all parents before the model is modified, so an invalid source
+ * leaves the model unchanged.
+ * </p>
+ *
+ * @see SwingStreamUtils#updateTreeModel(DefaultTreeModel, TreeStructure, Function)
+ */
+final class TreeModelDiff {
+
+    private static final int[] NO_INDEXES = new int[0];
+
+    private final DefaultTreeModel model;
+    private final TreeStructure source;
+    private final Function<Object, ?> keyMapper;
+
+    TreeModelDiff(DefaultTreeModel model, TreeStructure source, Function<Object, ?> keyMapper) {
+        this.model = Objects.requireNonNull(model);
+        this.source = Objects.requireNonNull(source);
+        this.keyMapper = Objects.requireNonNull(keyMapper);
+    }
+
+    void apply() {
+        final DefaultMutableTreeNode root = (DefaultMutableTreeNode) model.getRoot();
+        final Object sourceRoot = source.getRoot();
+        if (root == null || sourceRoot == null
+                || !Objects.equals(keyMapper.apply(root.getUserObject()), keyMapper.apply(sourceRoot))) {
+            model.setRoot(sourceRoot == null ? null : createSubtree(sourceRoot));
+            return;
+        }
+        checkKeys(sourceRoot);
+        if (!Objects.equals(root.getUserObject(), sourceRoot)) {
+            root.setUserObject(sourceRoot);
+            model.nodeChanged(root);
+        }
+        final Deque<DefaultMutableTreeNode> nodes = new ArrayDeque<>();
+        final Deque<Object> sourceNodes = new ArrayDeque<>();
+        nodes.push(root);
+        sourceNodes.push(sourceRoot);
+        while (!nodes.isEmpty()) {
+            updateChildren(nodes.pop(), sourceNodes.pop(), nodes, sourceNodes);
+        }
+    }
+
+    /**
+     * Checks that the children of each node of the source subtree have distinct keys.
+     *
+     * @throws IllegalStateException If children of a source node have the same key.
+     */
+    private void checkKeys(Object sourceRoot) {
+        final Deque<Object> stack = new ArrayDeque<>();
+        stack.push(sourceRoot);
+        while (!stack.isEmpty()) {
+            final Object sourceNode = stack.pop();
+            final int childCount = source.getChildCount(sourceNode);
+            final Map<Object, Object> keys = new HashMap<>(Math.max(16, childCount * 4 / 3 + 1));
+            for (int i = 0; i < childCount; i++) {
+                final Object child = source.getChild(sourceNode, i);
+                final Object key = keyMapper.apply(child);
+                if (keys.put(key, child) != null) {
+                    throw new IllegalStateException("Duplicate key of children of " + sourceNode + ": " + key + ".");
+                }
+                stack.push(child);
+            }
+        }
+    }
+
+    /**
+     * Creates node with the subtree of the source node.
+     */
+    private DefaultMutableTreeNode createSubtree(Object sourceNode) {
+        final DefaultMutableTreeNode node = new DefaultMutableTreeNode(sourceNode);
+        final Deque<DefaultMutableTreeNode> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            final DefaultMutableTreeNode parent = stack.pop();
+            final Object sourceParent = parent.getUserObject();
+            final int childCount = source.getChildCount(sourceParent);
+            for (int i = 0; i < childCount; i++) {
+                DefaultMutableTreeNode child = new DefaultMutableTreeNode(source.getChild(sourceParent, i));
+                parent.add(child);
+                stack.push(child);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Updates the children of the node to match the children of the source node. Pushes the matching children which
+     * subtrees are to be updated.
+     */
+    private void updateChildren(DefaultMutableTreeNode node, Object sourceNode, Deque<DefaultMutableTreeNode> nodes,
+                                Deque<Object> sourceNodes) {
+        final int sourceChildCount = source.getChildCount(sourceNode);
+        final Object[] sourceChildren = new Object[sourceChildCount];
+        final Map<Object, Integer> newIndexes = new HashMap<>(Math.max(16, sourceChildCount * 4 / 3 + 1));
+        for (int i = 0; i < sourceChildCount; i++) {
+            sourceChildren[i] = source.getChild(sourceNode, i);
+            newIndexes.put(keyMapper.apply(sourceChildren[i]), i); // the keys are distinct - see checkKeys
+        }
+
+        // match the current children:
+        final int childCount = node.getChildCount();
+        final int[] oldToNew = new int[childCount]; // -1 for removed
+        final DefaultMutableTreeNode[] matched = new DefaultMutableTreeNode[sourceChildCount];
+        int matchedCount = 0;
+        boolean ordered = true;
+        int lastNewIndex = -1;
+        for (int i = 0; i < childCount; i++) {
+            DefaultMutableTreeNode child = (DefaultMutableTreeNode) node.getChildAt(i);
+            Integer newIndex = newIndexes.get(keyMapper.apply(child.getUserObject()));
+            if (newIndex == null || matched[newIndex] != null) {
+                oldToNew[i] = -1;
+                continue;
+            }
+            oldToNew[i] = newIndex;
+            matched[newIndex] = child;
+            matchedCount++;
+            ordered &= newIndex > lastNewIndex;
+            lastNewIndex = newIndex;
+        }
+
+        // find children which keep their place, others are removed (to be inserted back if moved):
+        final boolean[] stays = ordered ? null : findStaying(oldToNew);
+        final List<DefaultMutableTreeNode> remaining = new ArrayList<>(matchedCount);
+        final int[] removedIndexes = new int[childCount];
+        final Object[] removedChildren = new Object[childCount];
+        int removedCount = 0;
+        for (int i = 0; i < childCount; i++) {
+            if (oldToNew[i] != -1 && (stays == null || stays[i])) {
+                remaining.add((DefaultMutableTreeNode) node.getChildAt(i));
+            } else {
+                removedIndexes[removedCount] = i;
+                removedChildren[removedCount] = node.getChildAt(i);
+                removedCount++;
+            }
+        }
+        if (removedCount > 0) {
+            setChildren(node, remaining);
+            model.nodesWereRemoved(node, Arrays.copyOf(removedIndexes, removedCount),
+                    Arrays.copyOf(removedChildren, removedCount));
+        }
+
+        // insert the new and the moved children, update user objects of the staying ones:
+        if (remaining.size() < sourceChildCount) {
+            final List<DefaultMutableTreeNode> children = new ArrayList<>(sourceChildCount);
+            final int[] insertedIndexes = new int[sourceChildCount - remaining.size()];
+            int insertedCount = 0;
+            int nextRemaining = 0;
+            for (int i = 0; i < sourceChildCount; i++) {
+                DefaultMutableTreeNode child;
+                if (nextRemaining < remaining.size() && remaining.get(nextRemaining) == matched[i]) {
+                    child = remaining.get(nextRemaining++);
+                } else {
+                    child = matched[i] != null ? matched[i] : createSubtree(sourceChildren[i]);
+                    child.setUserObject(sourceChildren[i]);
+                    insertedIndexes[insertedCount++] = i;
+                }
+                children.add(child);
+            }
+            setChildren(node, children);
+            model.nodesWereInserted(node, insertedIndexes);
+        }
+        int[] changedIndexes = NO_INDEXES;
+        int changedCount = 0;
+        for (int i = 0; i < sourceChildCount; i++) {
+            DefaultMutableTreeNode child = matched[i];
+            if (child != null && !Objects.equals(child.getUserObject(), sourceChildren[i])) {
+                child.setUserObject(sourceChildren[i]);
+                if (changedCount == changedIndexes.length) {
+                    changedIndexes = Arrays.copyOf(changedIndexes, Math.max(4, changedCount * 2));
+                }
+                changedIndexes[changedCount++] = i;
+            }
+        }
+        if (changedCount > 0) {
+            model.nodesChanged(node, Arrays.copyOf(changedIndexes, changedCount));
+        }
+        for (int i = sourceChildCount - 1; i > -1; i--) {
+            if (matched[i] != null) {
+                nodes.push(matched[i]);
+                sourceNodes.push(sourceChildren[i]);
+            }
+        }
+    }
+
+    private static void setChildren(DefaultMutableTreeNode node, List<DefaultMutableTreeNode> children) {
+        node.removeAllChildren(); // removes from the end - linear time
+        for (DefaultMutableTreeNode child : children) {
+            node.add(child);
+        }
+    }
+
+    /**
+     * Finds the longest increasing subsequence of the new indexes of the matched children.
+     *
+     * @param oldToNew New index by old index, -1 for the removed children.
+     * @return Flags by old index which indicate the children of the subsequence.
+     */
+    static boolean[] findStaying(int[] oldToNew) {
+        final int n = oldToNew.length;
+        final int[] tails = new int[n]; // old index of the smallest tail of subsequence of each length
+        final int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            final int value = oldToNew[i];
+            if (value == -1) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (oldToNew[tails[mid]] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        final boolean[] stays = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i != -1; i = previous[i]) {
+            stays[i] = true;
+        }
+        return stays;
+    }
+}
@@ -0,0 +1,211 @@
+package io.github.parubok.stream;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Index which maps each node of a tree to its path, so the path of a node can be found in constant time.
+ * <p>
+ * The paths of the index share their parent paths (see {@link KTreePath#pathByAddingChild(Object)}), so the index
+ * takes memory linear in the number of nodes. The index also keeps the children of each indexed node, so a removed
+ * or replaced subtree is removed from the index by walking it, without scanning the whole index.
+ * </p>
+ * <p>
+ * To keep the index consistent with the {@link TreeModel}, register it as a listener of the model:
+ * </p>
+ * <pre>
+ * TreePathIndex index = new TreePathIndex(model);
+ * model.addTreeModelListener(index);
+ * </pre>
+ * <p>
+ * <b>Note:</b> This class is not thread-safe.
+ * </p>
+ *
+ * @see TreeStructure
+ */
+public class TreePathIndex implements TreeModelListener {
+
+    private static final Object[] NO_CHILDREN = new Object[0];
+
+    private final TreeStructure treeStructure;
+    private final Map<Object, KTreePath> paths = new HashMap<>();
+
+    /**
+     * Maps indexed node to its children, as they were when the node was indexed. Leaves are not mapped.
+     */
+    private final Map<Object, Object[]> children = new HashMap<>();
+
+    /**
+     * @param treeModel Tree model to index. Not null.
+     */
+    public TreePathIndex(TreeModel treeModel) {
+        this(new TreeModelTreeStructure(treeModel, false));
+    }
+
+    /**
+     * @param treeStructure Tree structure to index. Not null.
+     */
+    public TreePathIndex(TreeStructure treeStructure) {
+        this.treeStructure = Objects.requireNonNull(treeStructure);
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the whole index.
+     */
+    public void rebuild() {
+        paths.clear();
+        children.clear();
+        Object root = treeStructure.getRoot();
+        if (root != null) {
+            indexSubtree(KTreePath.of(root));
+        }
+    }
+
+    private void indexSubtree(KTreePath path) {
+        Deque<KTreePath> stack = new ArrayDeque<>();
+        stack.push(path);
+        while (!stack.isEmpty()) {
+            KTreePath p = stack.pop();
+            Object node = p.getLastPathComponent();
+            paths.put(node, p);
+            final Object[] nodeChildren = indexChildren(node);
+            for (int i = nodeChildren.length - 1; i > -1; i--) {
+                stack.push(p.pathByAddingChild(nodeChildren[i]));
+            }
+        }
+    }
+
+    /**
+     * Reads the current children of the node.
+     */
+    private Object[] indexChildren(Object node) {
+        final int childCount = treeStructure.getChildCount(node);
+        if (childCount == 0) {
+            children.remove(node);
+            return NO_CHILDREN;
+        }
+        final Object[] nodeChildren = new Object[childCount];
+        for (int i = 0; i < childCount; i++) {
+            nodeChildren[i] = treeStructure.getChild(node, i);
+        }
+        children.put(node, nodeChildren);
+        return nodeChildren;
+    }
+
+    /**
+     * Removes the descendants of the node, using the children recorded when they were indexed, so the tree
+     * structure is not accessed.
+     *
+     * @param removeNode True to remove the node itself as well.
+     */
+    private void removeSubtree(Object node, boolean removeNode) {
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Object n = stack.pop();
+            if (n != node || removeNode) {
+                paths.remove(n);
+            }
+            Object[] nodeChildren = children.remove(n);
+            if (nodeChildren != null) {
+                for (Object child : nodeChildren) {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param node Node to find path of.
+     * @return Path of the node or null if the node is not in the index.
+     */
+    public KTreePath getPath(Object node) {
+        return paths.get(node);
+    }
+
+    /**
+     * @param node Node to find parent of.
+     * @return Parent of the node or null if the node is root or not in the index.
+     */
+    public Object getParent(Object node) {
+        KTreePath path = paths.get(node);
+        KTreePath parentPath = path != null ? path.getParentPath() : null;
+        return parentPath != null ? parentPath.getLastPathComponent() : null;
+    }
+
+    /**
+     * @return True if the node is in the index.
+     */
+    public boolean contains(Object node) {
+        return paths.containsKey(node);
+    }
+
+    /**
+     * @return Number of the indexed nodes.
+     */
+    public int size() {
+        return paths.size();
+    }
+
+    /**
+     * @return Indexed path of the last component of the specified path or null if it is not in the index.
+     */
+    private KTreePath getIndexedPath(TreePath path) {
+        return path != null ? paths.get(path.getLastPathComponent()) : null;
+    }
+
+    @Override
+    public void treeNodesChanged(TreeModelEvent e) {
+        // do nothing - the changed nodes keep their paths
+    }
+
+    @Override
+    public void treeNodesInserted(TreeModelEvent e) {
+        KTreePath parentPath = getIndexedPath(e.getTreePath());
+        Object[] inserted = e.getChildren();
+        if (parentPath == null || inserted == null) {
+            rebuild();
+            return;
+        }
+        indexChildren(parentPath.getLastPathComponent());
+        for (Object child : inserted) {
+            indexSubtree(parentPath.pathByAddingChild(child));
+        }
+    }
+
+    @Override
+    public void treeNodesRemoved(TreeModelEvent e) {
+        Object[] removed = e.getChildren();
+        if (removed == null) {
+            rebuild();
+            return;
+        }
+        for (Object child : removed) {
+            removeSubtree(child, true);
+        }
+        KTreePath parentPath = getIndexedPath(e.getTreePath());
+        if (parentPath != null) {
+            indexChildren(parentPath.getLastPathComponent());
+        }
+    }
+
+    @Override
+    public void treeStructureChanged(TreeModelEvent e) {
+        KTreePath path = getIndexedPath(e.getTreePath());
+        if (path == null || path.getParentPath() == null) {
+            rebuild(); // the root or an unknown node has changed
+            return;
+        }
+        // the previous descendants may be unreachable from the changed node now:
+        removeSubtree(path.getLastPathComponent(), false);
+        indexSubtree(path);
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.parubok.stream;
+
+import javax.swing.SwingUtilities;
+import javax.swing.tree.TreeModel;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable array-backed copy of a tree. Since it is immutable, the snapshot may be traversed from any thread,
+ * including parallel streams (see {@link SwingStreamUtils#parallelStream(TreeStructure)}).
+ * <p>
+ * The nodes are stored in {@link TreeTraversalType#BREADTH_FIRST} order, so the children of each node occupy a
+ * contiguous range of the node array and a node requires only the node reference, the start of its children range
+ * and a slot of the node lookup table.
+ * </p>
+ *
+ * @see TreeStructure
+ */
+public final class TreeSnapshot implements TreeStructure {
+
+    /**
+     * Captures the specified tree structure. The structure is read on the calling thread.
+     *
+     * @param treeStructure Tree structure to capture. Not null. Must not change during the call.
+     * @return The snapshot.
+     */
+    public static TreeSnapshot of(TreeStructure treeStructure) {
+        Objects.requireNonNull(treeStructure);
+        Object root = treeStructure.getRoot();
+        Object[] nodes = new Object[16];
+        int[] childStarts = new int[17];
+        int size = 0;
+        if (root != null) {
+            nodes[size++] = root;
+        }
+        for (int i = 0; i < size; i++) {
+            Object node = nodes[i];
+            final int childCount = treeStructure.getChildCount(node);
+            if (size + childCount > nodes.length) {
+                nodes = Arrays.copyOf(nodes, Math.max(nodes.length * 2, size + childCount));
+                childStarts = Arrays.copyOf(childStarts, nodes.length + 1);
+            }
+            childStarts[i] = size;
+            for (int j = 0; j < childCount; j++) {
+                nodes[size++] = treeStructure.getChild(node, j);
+            }
+        }
+        childStarts[size] = size;
+        return new TreeSnapshot(Arrays.copyOf(nodes, size), Arrays.copyOf(childStarts, size + 1));
+    }
+
+    /**
+     * Captures the specified tree model. The model is read on EDT - if the calling thread is not EDT, it waits
+     * until the capture is complete.
+     *
+     * @param treeModel Tree model to capture. Not null.
+     * @return The snapshot.
+     */
+    public static TreeSnapshot of(TreeModel treeModel) {
+        Objects.requireNonNull(treeModel);
+        final TreeStructure treeStructure = new TreeModelTreeStructure(treeModel, false);
+        if (SwingUtilities.isEventDispatchThread()) {
+            return of(treeStructure);
+        }
+        final AtomicReference<TreeSnapshot> snapshotRef = new AtomicReference<>();
+        try {
+            SwingUtilities.invokeAndWait(() -> snapshotRef.set(of(treeStructure)));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return snapshotRef.get();
+    }
+
+    private final Object[] nodes; // in breadth-first order
+    private final int[] childStarts; // index of the first child by node index, last element is the node count
+
+    /**
+     * Open-addressing table which maps node to its index. Each slot contains node index + 1, 0 for empty slot.
+     */
+    private final int[] table;
+
+    private TreeSnapshot(Object[] nodes, int[] childStarts) {
+        this.nodes = nodes;
+        this.childStarts = childStarts;
+        int capacity = 2;
+        while (capacity < nodes.length * 2) {
+            capacity <<= 1;
+        }
+        this.table = new int[capacity];
+        final int mask = capacity - 1;
+        for (int i = 0; i < nodes.length; i++) {
+            int slot = hash(nodes[i]) & mask;
+            while (table[slot] != 0) {
+                if (nodes[table[slot] - 1].equals(nodes[i])) {
+                    throw new IllegalArgumentException("Duplicate node: " + nodes[i]);
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    private static int hash(Object node) {
+        final int h = node.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return Index of the node in breadth-first order or -1 if the node is not in the snapshot.
+     */
+    public int indexOf(Object node) {
+        if (node == null) {
+            return -1;
+        }
+        final int mask = table.length - 1;
+        int slot = hash(node) & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            if (nodes[entry - 1].equals(node)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int getExistingIndex(Object node) {
+        final int index = indexOf(node);
+        if (index == -1) {
+            throw new IllegalArgumentException("Node is not in the snapshot: " + node);
+        }
+        return index;
+    }
+
+    /**
+     * @return True if the node is in the snapshot.
+     */
+    public boolean contains(Object node) {
+        return indexOf(node) > -1;
+    }
+
+    /**
+     * @return Number of nodes in the snapshot.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * @param index Index of the node in breadth-first order.
+     * @return The node.
+     */
+    public Object getNode(int index) {
+        return nodes[index];
+    }
+
+    @Override
+    public Object getRoot() {
+        return nodes.length > 0 ? nodes[0] : null;
+    }
+
+    /**
+     * @throws IllegalArgumentException If the parent is not in the snapshot.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    @Override
+    public Object getChild(Object parent, int index) {
+        final int parentIndex = getExistingIndex(parent);
+        final int childStart = childStarts[parentIndex];
+        final int childCount = childStarts[parentIndex + 1] - childStart;
+        if (index < 0 || index >= childCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", child count: " + childCount);
+        }
+        return nodes[childStart + index];
+    }
+
+    /**
+     * @throws IllegalArgumentException If the parent is not in the snapshot.
+     */
+    @Override
+    public int getChildCount(Object parent) {
+        final int parentIndex = getExistingIndex(parent);
+        return childStarts[parentIndex + 1] - childStarts[parentIndex];
+    }
+}
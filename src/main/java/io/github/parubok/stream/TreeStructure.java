@@ -4,6 +4,10 @@ import javax.swing.tree.TreeModel;
 
 /**
  * Allows to access generic tree-like structure in read-only mode.
+ * <p>
+ * The classes of this library which look up nodes of a tree or use them as keys (indexes, snapshots, caches, tree
+ * model adapters) compare the nodes by {@link Object#equals(Object)}, so the nodes of a tree must be unique.
+ * </p>
  */
 public interface TreeStructure {
 
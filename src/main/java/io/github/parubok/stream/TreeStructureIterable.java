@@ -2,6 +2,7 @@ package io.github.parubok.stream;
 
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.function.Predicate;
 
 import static java.util.Collections.emptyIterator;
 
@@ -9,10 +10,28 @@ public class TreeStructureIterable implements Iterable<KTreePath> {
 
     private final TreeStructure treeStructure;
     private final TreeTraversalType traversalType;
+    private final Predicate<? super KTreePath> descendFilter;
 
     public TreeStructureIterable(TreeStructure treeStructure, TreeTraversalType traversalType) {
+        this(treeStructure, traversalType, path -> true);
+    }
+
+    /**
+     * @param maxDepth Maximal depth of the iterated paths (0 for the root path).
+     */
+    public TreeStructureIterable(TreeStructure treeStructure, TreeTraversalType traversalType, int maxDepth) {
+        this(treeStructure, traversalType, TreeTraversalType.maxDepthFilter(maxDepth));
+    }
+
+    /**
+     * @param descendFilter Decides whether to descend into children of the last component of a path. Children of
+     * the rejected paths are not iterated and not requested from the tree structure.
+     */
+    public TreeStructureIterable(TreeStructure treeStructure, TreeTraversalType traversalType,
+                                 Predicate<? super KTreePath> descendFilter) {
         this.treeStructure = Objects.requireNonNull(treeStructure);
         this.traversalType = Objects.requireNonNull(traversalType);
+        this.descendFilter = Objects.requireNonNull(descendFilter);
     }
 
     @Override
@@ -21,6 +40,6 @@ public class TreeStructureIterable implements Iterable<KTreePath> {
         if (root == null) {
             return emptyIterator();
         }
-        return traversalType.createIterator(treeStructure);
+        return traversalType.createIterator(treeStructure, descendFilter);
     }
 }
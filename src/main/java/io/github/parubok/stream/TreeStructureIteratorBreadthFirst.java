@@ -0,0 +1,56 @@
+package io.github.parubok.stream;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of {@link TreeTraversalType#BREADTH_FIRST} iteration.
+ * <p>
+ * The frontier of the traversal is a queue of the already returned paths whose children are yet to be visited plus
+ * the child index range of the path being expanded. Since {@link KTreePath} shares its parent path, each queue entry
+ * adds a single link, so the memory grows with the tree width and not with the width multiplied by depth. Child count
+ * of a node is requested only when the node is expanded.
+ * </p>
+ */
+final class TreeStructureIteratorBreadthFirst extends AbstractTreeStructureIterator {
+
+    private final Queue<KTreePath> frontier = new ArrayDeque<>();
+
+    /**
+     * Path which children are being returned.
+     */
+    private KTreePath parentPath;
+    private int nextChildIndex;
+    private int childCount;
+
+    TreeStructureIteratorBreadthFirst(TreeStructure treeStructure, Predicate<? super KTreePath> descendFilter) {
+        super(treeStructure, descendFilter);
+    }
+
+    private KTreePath addToFrontier(KTreePath path) {
+        if (descendFilter.test(path)) {
+            frontier.add(path);
+        }
+        return path;
+    }
+
+    @Override
+    KTreePath getNextPath() {
+        assert !completed;
+        if (currentPath == EMPTY_PATH) {
+            return addToFrontier(KTreePath.of(treeStructure.getRoot())); // start iteration with the root path
+        }
+        while (nextChildIndex == childCount) {
+            // children of the current parent are exhausted - expand the next path from the frontier:
+            parentPath = frontier.poll();
+            if (parentPath == null) {
+                return EMPTY_PATH; // end of iteration
+            }
+            nextChildIndex = 0;
+            childCount = treeStructure.getChildCount(parentPath.getLastPathComponent());
+        }
+        Object child = treeStructure.getChild(parentPath.getLastPathComponent(), nextChildIndex++);
+        return addToFrontier(parentPath.pathByAddingChild(child));
+    }
+}
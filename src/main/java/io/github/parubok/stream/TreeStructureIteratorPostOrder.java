@@ -1,20 +1,27 @@
 package io.github.parubok.stream;
 
-import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Implementation of {@link TreeTraversalType#POST_ORDER} iteration.
+ * <p>
+ * Like {@link TreeStructureIteratorPreOrder}, keeps index of each path component in its parent, so the whole
+ * traversal takes time linear in the number of nodes regardless of the tree shape.
+ * </p>
  */
 final class TreeStructureIteratorPostOrder extends AbstractTreeStructureIterator {
 
-    TreeStructureIteratorPostOrder(TreeStructure treeStructure) {
-        super(treeStructure);
+    TreeStructureIteratorPostOrder(TreeStructure treeStructure, Predicate<? super KTreePath> descendFilter) {
+        super(treeStructure, descendFilter);
     }
 
     private KTreePath getLeafPath(KTreePath path) {
-        while (treeStructure.getChildCount(path.getLastPathComponent()) > 0) {
-            Object child = treeStructure.getChild(path.getLastPathComponent(), 0);
-            path = path.pathByAddingChild(child);
+        Object node = path.getLastPathComponent();
+        int childCount;
+        while (descendFilter.test(path) && (childCount = treeStructure.getChildCount(node)) > 0) {
+            pushChild(childCount);
+            node = treeStructure.getChild(node, 0);
+            path = path.pathByAddingChild(node);
         }
         return path;
     }
@@ -28,25 +35,19 @@ final class TreeStructureIteratorPostOrder extends AbstractTreeStructureIterator
             return getLeafPath(KTreePath.of(treeStructure.getRoot()));
         }
 
-        if (currentPath.getPathCount() == 1) {
-            return EMPTY_PATH; // root-only path - end of iteration
-        }
-
-        KTreePath parentPath = currentPath.getParentPath();
-        Object parentNode = parentPath.getLastPathComponent();
-
-        if (treeStructure.getChildCount(parentNode) == 1) {
-            return parentPath;
+        if (depth == 0) {
+            return EMPTY_PATH; // root path - end of iteration
         }
 
         // try to go right and down, if not possible - return parent path:
-        List<Object> children = getChildren(treeStructure, parentNode);
-        int childIndex = children.indexOf(currentPath.getLastPathComponent());
-        assert childIndex > -1;
-        if (childIndex < (children.size() - 1)) {
-            return getLeafPath(parentPath.pathByAddingChild(children.get(childIndex + 1)));
-        } else {
-            return parentPath;
+        KTreePath parentPath = currentPath.getParentPath();
+        final int nextIndex = childIndexes[depth] + 1;
+        if (nextIndex < childCounts[depth]) {
+            childIndexes[depth] = nextIndex;
+            Object nextChild = treeStructure.getChild(parentPath.getLastPathComponent(), nextIndex);
+            return getLeafPath(parentPath.pathByAddingChild(nextChild));
         }
+        depth--;
+        return parentPath;
     }
 }
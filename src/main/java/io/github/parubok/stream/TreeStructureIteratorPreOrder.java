@@ -1,49 +1,48 @@
 package io.github.parubok.stream;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Implementation of {@link TreeTraversalType#PRE_ORDER} iteration.
+ * <p>
+ * The iterator keeps, for each level of the current path, index of the path component in its parent and the child
+ * count of the parent, so moving to the next sibling does not require to rescan the children of the parent.
+ * </p>
  */
 final class TreeStructureIteratorPreOrder extends AbstractTreeStructureIterator {
 
-    TreeStructureIteratorPreOrder(TreeStructure treeStructure) {
-        super(treeStructure);
+    TreeStructureIteratorPreOrder(TreeStructure treeStructure, Predicate<? super KTreePath> descendFilter) {
+        super(treeStructure, descendFilter);
     }
 
     @Override
     KTreePath getNextPath() {
         assert !completed;
-        Object root = treeStructure.getRoot();
         if (currentPath == EMPTY_PATH) {
-            return KTreePath.of(root); // start iteration with the root path
+            return KTreePath.of(treeStructure.getRoot()); // start iteration with the root path
         }
         // try to go down first:
-        Object currentNode = currentPath.getLastPathComponent();
-        if (treeStructure.getChildCount(currentNode) > 0) {
-            Object child = treeStructure.getChild(currentNode, 0);
-            return currentPath.pathByAddingChild(child);
+        if (descendFilter.test(currentPath)) {
+            Object currentNode = currentPath.getLastPathComponent();
+            final int childCount = treeStructure.getChildCount(currentNode);
+            if (childCount > 0) {
+                pushChild(childCount);
+                return currentPath.pathByAddingChild(treeStructure.getChild(currentNode, 0));
+            }
         }
         // try to go to the right:
-        if (currentPath.getPathCount() > 1) {
-            int indexInPath = currentPath.getPathCount() - 2;
-            while (indexInPath > -1) {
-                Object parent = currentPath.getPathComponent(indexInPath);
-                List<Object> children = getChildren(treeStructure, parent);
-                int childIndex = children.indexOf(currentPath.getPathComponent(indexInPath + 1));
-                assert childIndex > -1;
-                if (childIndex < (children.size() - 1)) {
-                    // take next child:
-                    List<Object> p = new ArrayList<>();
-                    for (int i = 0; i < (indexInPath + 1); i++) {
-                        p.add(currentPath.getPathComponent(i));
-                    }
-                    p.add(children.get(childIndex + 1));
-                    return new KTreePath(p);
-                }
-                indexInPath--; // go 1 level up
+        KTreePath path = currentPath;
+        while (depth > 0) {
+            KTreePath parentPath = path.getParentPath();
+            final int nextIndex = childIndexes[depth] + 1;
+            if (nextIndex < childCounts[depth]) {
+                // take next child:
+                childIndexes[depth] = nextIndex;
+                Object parent = parentPath.getLastPathComponent();
+                return parentPath.pathByAddingChild(treeStructure.getChild(parent, nextIndex));
             }
+            path = parentPath;
+            depth--; // go 1 level up
         }
         return EMPTY_PATH; // unable to find next path - end of iteration
     }
@@ -0,0 +1,164 @@
+package io.github.parubok.stream;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Splittable {@link Spliterator} which traverses {@link TreeStructure} in {@link TreeTraversalType#PRE_ORDER}.
+ * <p>
+ * The remaining work is kept as a stack of frames - each frame is a parent path with a range of indexes of its
+ * children which subtrees are yet to be traversed (the top frame is traversed first). {@link #trySplit()} gives away
+ * the prefix of this work - the deeper frames, or the first half of the children of the lowest frame - so the split
+ * parts are whole unvisited subtrees.
+ * </p>
+ * <p>
+ * The size of the subtrees is not known in advance, so the size estimate starts as unknown ({@link Long#MAX_VALUE})
+ * and is halved for both parts on each split (as in {@link Spliterators.AbstractSpliterator}). This way a parallel
+ * stream stops splitting after a number of splits which depends on its parallelism, rather than splitting the tree
+ * down to single nodes.
+ * </p>
+ *
+ * @see SwingStreamUtils#parallelStream(TreeStructure)
+ */
+final class TreeStructureSpliterator implements Spliterator<KTreePath> {
+
+    private final TreeStructure treeStructure;
+    private final Predicate<? super KTreePath> descendFilter;
+
+    /**
+     * Parent paths of the frames. Null parent designates the frame with the root node.
+     */
+    private KTreePath[] parents;
+    private int[] fromIndexes;
+    private int[] toIndexes;
+
+    /**
+     * Index of the top frame or -1 if there is no frame.
+     */
+    private int top = -1;
+
+    private long estimatedSize;
+
+    TreeStructureSpliterator(TreeStructure treeStructure, Predicate<? super KTreePath> descendFilter) {
+        this(treeStructure, descendFilter, 16, Long.MAX_VALUE);
+        if (treeStructure.getRoot() != null) {
+            push(null, 0, 1);
+        }
+    }
+
+    private TreeStructureSpliterator(TreeStructure treeStructure, Predicate<? super KTreePath> descendFilter,
+                                     int capacity, long estimatedSize) {
+        this.treeStructure = Objects.requireNonNull(treeStructure);
+        this.descendFilter = Objects.requireNonNull(descendFilter);
+        this.parents = new KTreePath[capacity];
+        this.fromIndexes = new int[capacity];
+        this.toIndexes = new int[capacity];
+        this.estimatedSize = estimatedSize;
+    }
+
+    private void push(KTreePath parent, int fromIndex, int toIndex) {
+        top++;
+        if (top == parents.length) {
+            parents = Arrays.copyOf(parents, top * 2);
+            fromIndexes = Arrays.copyOf(fromIndexes, top * 2);
+            toIndexes = Arrays.copyOf(toIndexes, top * 2);
+        }
+        parents[top] = parent;
+        fromIndexes[top] = fromIndex;
+        toIndexes[top] = toIndex;
+    }
+
+    private KTreePath getPath(KTreePath parent, int index) {
+        if (parent == null) {
+            return KTreePath.of(treeStructure.getRoot());
+        }
+        return parent.pathByAddingChild(treeStructure.getChild(parent.getLastPathComponent(), index));
+    }
+
+    private int getChildCount(KTreePath path) {
+        return descendFilter.test(path) ? treeStructure.getChildCount(path.getLastPathComponent()) : 0;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super KTreePath> action) {
+        Objects.requireNonNull(action);
+        while (top > -1 && fromIndexes[top] == toIndexes[top]) {
+            parents[top] = null;
+            top--;
+        }
+        if (top == -1) {
+            return false;
+        }
+        KTreePath path = getPath(parents[top], fromIndexes[top]++);
+        final int childCount = getChildCount(path);
+        if (childCount > 0) {
+            push(path, 0, childCount);
+        }
+        action.accept(path);
+        return true;
+    }
+
+    @Override
+    public Spliterator<KTreePath> trySplit() {
+        int lowest = 0; // the lowest frame with remaining children
+        while (lowest <= top && fromIndexes[lowest] == toIndexes[lowest]) {
+            lowest++;
+        }
+        if (lowest > top) {
+            return null;
+        }
+        boolean moreAbove = false;
+        for (int i = lowest + 1; i <= top && !moreAbove; i++) {
+            moreAbove = fromIndexes[i] < toIndexes[i];
+        }
+        final long halfSize = Math.max(estimatedSize >>> 1, 1);
+        final KTreePath parent = parents[lowest];
+        final int fromIndex = fromIndexes[lowest];
+        final int toIndex = toIndexes[lowest];
+        final TreeStructureSpliterator prefix;
+        final int suffixFromIndex;
+        if (moreAbove) {
+            // give away the deeper frames, keep the remaining children of the lowest frame:
+            prefix = new TreeStructureSpliterator(treeStructure, descendFilter, Math.max(top - lowest, 1), halfSize);
+            for (int i = lowest + 1; i <= top; i++) {
+                prefix.push(parents[i], fromIndexes[i], toIndexes[i]);
+            }
+            suffixFromIndex = fromIndex;
+        } else if (toIndex - fromIndex > 1) {
+            // give away the first half of the children of the only frame:
+            suffixFromIndex = fromIndex + (toIndex - fromIndex) / 2;
+            prefix = new TreeStructureSpliterator(treeStructure, descendFilter, 1, halfSize);
+            prefix.push(parent, fromIndex, suffixFromIndex);
+        } else {
+            // the only remaining node - give it away and keep its children:
+            KTreePath path = getPath(parent, fromIndex);
+            final int childCount = getChildCount(path);
+            if (childCount == 0) {
+                return null;
+            }
+            Arrays.fill(parents, null);
+            top = -1;
+            push(path, 0, childCount);
+            return Spliterators.spliterator(new Object[]{path}, characteristics());
+        }
+        Arrays.fill(parents, null);
+        top = -1;
+        push(parent, suffixFromIndex, toIndex);
+        estimatedSize = halfSize;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return top == -1 ? 0 : estimatedSize;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
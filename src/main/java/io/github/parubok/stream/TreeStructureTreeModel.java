@@ -0,0 +1,189 @@
+package io.github.parubok.stream;
+
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Presents {@link TreeStructure} as read-only {@link TreeModel}, for example, to display it in
+ * {@link javax.swing.JTree}.
+ * <p>
+ * {@link #getIndexOfChild(Object, Object)} scans the children of small parents. For larger parents, child-to-index
+ * map is built on the first request and reused, so the lookup takes constant time. The number of the indexed parents
+ * is bounded - the map of the least recently used parent is evicted when the limit is exceeded. A map is rebuilt
+ * when it is found to be inconsistent with the tree structure, but if the tree structure may change, call
+ * {@link #nodeStructureChanged(TreePath)} to notify the model and its listeners.
+ * </p>
+ * <p>
+ * <b>Note:</b> This class is not thread-safe.
+ * </p>
+ *
+ * @see SwingStreamUtils#asTreeModel(java.awt.Component)
+ */
+public class TreeStructureTreeModel extends AbstractTreeModel {
+
+    /**
+     * Default maximal number of parents with child-to-index map.
+     */
+    public static final int DEFAULT_MAX_INDEXED_PARENTS = 1000;
+
+    /**
+     * Children of parents with up to this number of children are scanned instead of building the map.
+     */
+    private static final int MAX_SCANNED_CHILDREN = 8;
+
+    private final TreeStructure treeStructure;
+    private final int maxIndexedParents;
+
+    /**
+     * Maps parent to map of its children to their indexes. Iteration order is from the least recently accessed parent
+     * to the most recently accessed.
+     */
+    private final Map<Object, Map<Object, Integer>> indexes;
+
+    /**
+     * @param treeStructure Tree structure to present. Not null.
+     */
+    public TreeStructureTreeModel(TreeStructure treeStructure) {
+        this(treeStructure, DEFAULT_MAX_INDEXED_PARENTS);
+    }
+
+    /**
+     * @param treeStructure Tree structure to present. Not null.
+     * @param maxIndexedParents Maximal number of parents with child-to-index map. Must be positive.
+     */
+    public TreeStructureTreeModel(TreeStructure treeStructure, int maxIndexedParents) {
+        this.treeStructure = Objects.requireNonNull(treeStructure);
+        if (maxIndexedParents < 1) {
+            throw new IllegalArgumentException("Max indexed parents must be positive: " + maxIndexedParents);
+        }
+        this.maxIndexedParents = maxIndexedParents;
+        this.indexes = new LinkedHashMap<Object, Map<Object, Integer>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Map<Object, Integer>> eldest) {
+                return size() > TreeStructureTreeModel.this.maxIndexedParents;
+            }
+        };
+    }
+
+    public TreeStructure getTreeStructure() {
+        return treeStructure;
+    }
+
+    public int getMaxIndexedParents() {
+        return maxIndexedParents;
+    }
+
+    /**
+     * @return Number of parents which child-to-index maps are currently kept.
+     */
+    public int getIndexedParentCount() {
+        return indexes.size();
+    }
+
+    /**
+     * Removes the child-to-index map of the specified parent.
+     */
+    public void invalidate(Object parent) {
+        indexes.remove(parent);
+    }
+
+    /**
+     * Removes all child-to-index maps.
+     */
+    public void invalidateAll() {
+        indexes.clear();
+    }
+
+    /**
+     * Notifies the model that the subtree of the last node of the path has changed. Removes all child-to-index maps
+     * and fires {@link javax.swing.event.TreeModelListener#treeStructureChanged} event.
+     *
+     * @param path Path of the changed node. Null or path of the root if the whole tree has changed.
+     */
+    public void nodeStructureChanged(TreePath path) {
+        invalidateAll();
+        fireTreeStructureChanged(path != null ? path : rootPath());
+    }
+
+    private TreePath rootPath() {
+        final Object root = getRoot();
+        return root != null ? new TreePath(root) : null;
+    }
+
+    @Override
+    public Object getRoot() {
+        return treeStructure.getRoot();
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        return treeStructure.getChild(parent, index);
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        return treeStructure.getChildCount(parent);
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        return treeStructure.getChildCount(node) == 0;
+    }
+
+    /**
+     * Does nothing - the model is read-only.
+     */
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (parent == null || child == null) {
+            return -1;
+        }
+        Map<Object, Integer> childIndexes = indexes.get(parent);
+        if (childIndexes == null) {
+            final int childCount = treeStructure.getChildCount(parent);
+            if (childCount <= MAX_SCANNED_CHILDREN) {
+                return scan(parent, child, childCount);
+            }
+            childIndexes = buildIndexes(parent, childCount);
+        } else {
+            final Integer index = childIndexes.get(child);
+            if (index != null && isChildAt(parent, child, index)) {
+                return index;
+            }
+            // the map is stale or the child is not in it - it may have been added since the map was built:
+            childIndexes = buildIndexes(parent, treeStructure.getChildCount(parent));
+        }
+        final Integer index = childIndexes.get(child);
+        return index != null ? index : -1;
+    }
+
+    private int scan(Object parent, Object child, int childCount) {
+        for (int i = 0; i < childCount; i++) {
+            if (child.equals(treeStructure.getChild(parent, i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isChildAt(Object parent, Object child, int index) {
+        return index < treeStructure.getChildCount(parent) && child.equals(treeStructure.getChild(parent, index));
+    }
+
+    private Map<Object, Integer> buildIndexes(Object parent, int childCount) {
+        final Map<Object, Integer> childIndexes = new HashMap<>(Math.max(16, childCount * 4 / 3 + 1));
+        for (int i = 0; i < childCount; i++) {
+            childIndexes.putIfAbsent(treeStructure.getChild(parent, i), i);
+        }
+        indexes.put(parent, childIndexes);
+        return childIndexes;
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.parubok.stream;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+
+/**
+ * Implementation of {@link SwingStreamUtils#walk(TreeStructure, TreeVisitor)}. Keeps the current branch of the tree
+ * in arrays which are reused for the whole walk, so no objects are created per node.
+ */
+final class TreeStructureWalker {
+
+    private final TreeStructure treeStructure;
+    private final TreeVisitor visitor;
+
+    /**
+     * Nodes of the current branch by depth.
+     */
+    private Object[] nodes = new Object[16];
+
+    /**
+     * Index of the node at the given depth within its parent.
+     */
+    private int[] childIndexes = new int[16];
+
+    /**
+     * Child count of the node at the given depth.
+     */
+    private int[] childCounts = new int[16];
+
+    /**
+     * Index of the next child to visit of the node at the given depth.
+     */
+    private int[] nextChildIndexes = new int[16];
+
+    private int depth = -1;
+
+    TreeStructureWalker(TreeStructure treeStructure, TreeVisitor visitor) {
+        this.treeStructure = Objects.requireNonNull(treeStructure);
+        this.visitor = Objects.requireNonNull(visitor);
+    }
+
+    private void push(Object node, int childIndex) {
+        depth++;
+        if (depth == nodes.length) {
+            nodes = Arrays.copyOf(nodes, depth * 2);
+            childIndexes = Arrays.copyOf(childIndexes, depth * 2);
+            childCounts = Arrays.copyOf(childCounts, depth * 2);
+            nextChildIndexes = Arrays.copyOf(nextChildIndexes, depth * 2);
+        }
+        nodes[depth] = node;
+        childIndexes[depth] = childIndex;
+        childCounts[depth] = treeStructure.getChildCount(node);
+        nextChildIndexes[depth] = 0;
+    }
+
+    private void checkForModification() throws ConcurrentModificationException {
+        if (treeStructure.isChangeDetected()) {
+            throw new ConcurrentModificationException("Tree structure has been modified during walk.");
+        }
+    }
+
+    /**
+     * @return False if the walk was stopped by {@link TreeVisitResult#TERMINATE}, true otherwise.
+     */
+    boolean walk() {
+        final Object root = treeStructure.getRoot();
+        if (root == null) {
+            return true;
+        }
+        treeStructure.startListeningForChanges();
+        try {
+            TreeVisitResult result = Objects.requireNonNull(visitor.enterNode(root, null, 0, 0), "result");
+            if (result != TreeVisitResult.CONTINUE) {
+                return result != TreeVisitResult.TERMINATE;
+            }
+            push(root, 0);
+            while (depth > -1) {
+                checkForModification();
+                final Object parent = nodes[depth];
+                if (nextChildIndexes[depth] < childCounts[depth]) {
+                    final int index = nextChildIndexes[depth]++;
+                    final Object child = treeStructure.getChild(parent, index);
+                    result = Objects.requireNonNull(visitor.enterNode(child, parent, depth + 1, index), "result");
+                    if (result == TreeVisitResult.CONTINUE) {
+                        push(child, index);
+                    } else if (result == TreeVisitResult.SKIP_SIBLINGS) {
+                        nextChildIndexes[depth] = childCounts[depth];
+                    } else if (result == TreeVisitResult.TERMINATE) {
+                        return false;
+                    }
+                } else {
+                    // all children were visited - leave the node:
+                    nodes[depth] = null;
+                    depth--;
+                    result = Objects.requireNonNull(visitor.leaveNode(parent, depth > -1 ? nodes[depth] : null,
+                            depth + 1, childIndexes[depth + 1]), "result");
+                    if (result == TreeVisitResult.TERMINATE) {
+                        return false;
+                    }
+                    if (result == TreeVisitResult.SKIP_SIBLINGS && depth > -1) {
+                        nextChildIndexes[depth] = childCounts[depth];
+                    }
+                }
+            }
+            return true;
+        } finally {
+            treeStructure.stopListeningForChanges();
+        }
+    }
+}
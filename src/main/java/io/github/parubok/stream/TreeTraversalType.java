@@ -1,6 +1,7 @@
 package io.github.parubok.stream;
 
 import java.util.Iterator;
+import java.util.function.Predicate;
 
 /**
  * Types of tree traversal. See https://en.wikipedia.org/wiki/Tree_traversal
@@ -11,8 +12,9 @@ public enum TreeTraversalType {
      */
     PRE_ORDER {
         @Override
-        public Iterator<KTreePath> createIterator(TreeStructure treeStructure) {
-            return new TreeStructureIteratorPreOrder(treeStructure);
+        public Iterator<KTreePath> createIterator(TreeStructure treeStructure,
+                                                  Predicate<? super KTreePath> descendFilter) {
+            return new TreeStructureIteratorPreOrder(treeStructure, descendFilter);
         }
     },
     /**
@@ -20,10 +22,48 @@ public enum TreeTraversalType {
      */
     POST_ORDER {
         @Override
-        public Iterator<KTreePath> createIterator(TreeStructure treeStructure) {
-            return new TreeStructureIteratorPostOrder(treeStructure);
+        public Iterator<KTreePath> createIterator(TreeStructure treeStructure,
+                                                  Predicate<? super KTreePath> descendFilter) {
+            return new TreeStructureIteratorPostOrder(treeStructure, descendFilter);
+        }
+    },
+    /**
+     * Breadth-first (level-order) traversal.
+     */
+    BREADTH_FIRST {
+        @Override
+        public Iterator<KTreePath> createIterator(TreeStructure treeStructure,
+                                                  Predicate<? super KTreePath> descendFilter) {
+            return new TreeStructureIteratorBreadthFirst(treeStructure, descendFilter);
         }
     };
 
-    public abstract Iterator<KTreePath> createIterator(TreeStructure treeStructure);
+    public Iterator<KTreePath> createIterator(TreeStructure treeStructure) {
+        return createIterator(treeStructure, path -> true);
+    }
+
+    /**
+     * @param maxDepth Maximal depth of the returned paths (0 for the root path). Nodes at this depth are treated as
+     * leaves - their children are not requested from the tree structure.
+     */
+    public Iterator<KTreePath> createIterator(TreeStructure treeStructure, int maxDepth) {
+        return createIterator(treeStructure, maxDepthFilter(maxDepth));
+    }
+
+    /**
+     * @param descendFilter Decides whether to descend into children of the last component of a path. Nodes of the
+     * rejected paths are treated as leaves - their children are not requested from the tree structure.
+     */
+    public abstract Iterator<KTreePath> createIterator(TreeStructure treeStructure,
+                                                       Predicate<? super KTreePath> descendFilter);
+
+    /**
+     * @return Descend filter which accepts paths with depth lower than the specified one (the root path has depth 0).
+     */
+    static Predicate<KTreePath> maxDepthFilter(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Max depth must not be negative: " + maxDepth);
+        }
+        return path -> path.getPathCount() <= maxDepth;
+    }
 }
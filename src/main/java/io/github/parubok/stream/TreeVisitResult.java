@@ -0,0 +1,29 @@
+package io.github.parubok.stream;
+
+/**
+ * Result of {@link TreeVisitor} callback which controls how the tree walk continues.
+ *
+ * @see SwingStreamUtils#walk(TreeStructure, TreeVisitor)
+ */
+public enum TreeVisitResult {
+    /**
+     * Continue the walk. When returned from {@link TreeVisitor#enterNode}, children of the node will be visited.
+     */
+    CONTINUE,
+    /**
+     * Continue the walk without visiting children of the node. Only meaningful when returned from
+     * {@link TreeVisitor#enterNode} - in this case {@link TreeVisitor#leaveNode} is not invoked for the node.
+     * When returned from {@link TreeVisitor#leaveNode}, treated as {@link #CONTINUE}.
+     */
+    SKIP_SUBTREE,
+    /**
+     * Continue the walk without visiting the remaining siblings of the node. When returned from
+     * {@link TreeVisitor#enterNode}, children of the node are skipped as well and {@link TreeVisitor#leaveNode} is not
+     * invoked for the node.
+     */
+    SKIP_SIBLINGS,
+    /**
+     * Stop the walk.
+     */
+    TERMINATE
+}
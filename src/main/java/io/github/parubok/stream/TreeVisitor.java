@@ -0,0 +1,38 @@
+package io.github.parubok.stream;
+
+/**
+ * Visitor of tree nodes. Unlike streaming of {@link KTreePath}s, visiting does not create objects per node.
+ * <p>
+ * Nodes are entered in {@link TreeTraversalType#PRE_ORDER} and left in {@link TreeTraversalType#POST_ORDER}.
+ * </p>
+ *
+ * @see SwingStreamUtils#walk(TreeStructure, TreeVisitor)
+ */
+public interface TreeVisitor {
+
+    /**
+     * Invoked for a node before its children are visited.
+     *
+     * @param node The node.
+     * @param parent Parent of the node or null for the root.
+     * @param depth Depth of the node (0 for the root).
+     * @param childIndex Index of the node in its parent (0 for the root).
+     * @return How to continue the walk. Not null.
+     */
+    default TreeVisitResult enterNode(Object node, Object parent, int depth, int childIndex) {
+        return TreeVisitResult.CONTINUE;
+    }
+
+    /**
+     * Invoked for a node after all its children were visited.
+     *
+     * @param node The node.
+     * @param parent Parent of the node or null for the root.
+     * @param depth Depth of the node (0 for the root).
+     * @param childIndex Index of the node in its parent (0 for the root).
+     * @return How to continue the walk. Not null.
+     */
+    default TreeVisitResult leaveNode(Object node, Object parent, int depth, int childIndex) {
+        return TreeVisitResult.CONTINUE;
+    }
+}
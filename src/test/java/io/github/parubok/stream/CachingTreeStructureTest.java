@@ -0,0 +1,128 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class CachingTreeStructureTest {
+
+    /**
+     * Tree structure which counts calls of {@link #getChild(Object, int)} and {@link #getChildCount(Object)}.
+     */
+    private static class CountingTreeStructure extends TreeModelTreeStructure {
+        int calls;
+
+        CountingTreeStructure(DefaultTreeModel model) {
+            super(model, false);
+        }
+
+        @Override
+        public Object getChild(Object parent, int index) {
+            calls++;
+            return super.getChild(parent, index);
+        }
+
+        @Override
+        public int getChildCount(Object parent) {
+            calls++;
+            return super.getChildCount(parent);
+        }
+    }
+
+    private static DefaultTreeModel createModel() {
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+        for (int i = 0; i < 3; i++) {
+            DefaultMutableTreeNode child = new DefaultMutableTreeNode("c" + i);
+            root.add(child);
+            for (int j = 0; j < 2; j++) {
+                child.add(new DefaultMutableTreeNode("c" + i + "_" + j));
+            }
+        }
+        return new DefaultTreeModel(root);
+    }
+
+    private static List<String> names(TreeStructure treeStructure) {
+        return SwingStreamUtils.stream(treeStructure)
+                .map(path -> path.getLastPathComponent().toString())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void repeatedTraversal_hitsCache() {
+        DefaultTreeModel model = createModel();
+        CountingTreeStructure counting = new CountingTreeStructure(model);
+        CachingTreeStructure caching = new CachingTreeStructure(counting, 100);
+        List<String> expected = Arrays.asList("root", "c0", "c0_0", "c0_1", "c1", "c1_0", "c1_1", "c2", "c2_0",
+                "c2_1");
+        Assertions.assertEquals(expected, names(caching));
+        final int calls = counting.calls;
+        Assertions.assertTrue(calls > 0);
+        Assertions.assertEquals(expected, names(caching));
+        Assertions.assertEquals(10, SwingStreamUtils.stream(caching, TreeTraversalType.POST_ORDER).count());
+        Assertions.assertEquals(calls, counting.calls);
+        Assertions.assertEquals(10, caching.getCachedParentCount());
+    }
+
+    @Test
+    public void lruEviction() {
+        DefaultTreeModel model = createModel();
+        CountingTreeStructure counting = new CountingTreeStructure(model);
+        CachingTreeStructure caching = new CachingTreeStructure(counting, 2);
+        Object root = model.getRoot();
+        Object c0 = caching.getChild(root, 0);
+        Object c1 = caching.getChild(root, 1);
+        Assertions.assertEquals(2, caching.getChildCount(c0));
+        Assertions.assertEquals(2, caching.getCachedParentCount());
+        // root was accessed more recently than c0, so adding c1 evicts c0:
+        caching.getChildCount(root);
+        caching.getChildCount(c1);
+        Assertions.assertEquals(2, caching.getCachedParentCount());
+        int calls = counting.calls;
+        caching.getChildCount(c1);
+        caching.getChildCount(root);
+        Assertions.assertEquals(calls, counting.calls);
+        caching.getChildCount(c0); // was evicted
+        Assertions.assertEquals(calls + 1, counting.calls);
+    }
+
+    @Test
+    public void invalidatedByModelEvents() {
+        DefaultTreeModel model = createModel();
+        final int listenerCount = model.getTreeModelListeners().length;
+        CachingTreeStructure caching = CachingTreeStructure.of(model, 100);
+        Assertions.assertEquals(listenerCount + 1, model.getTreeModelListeners().length);
+        Assertions.assertEquals(10, names(caching).size());
+
+        DefaultMutableTreeNode root = (DefaultMutableTreeNode) model.getRoot();
+        DefaultMutableTreeNode c1 = (DefaultMutableTreeNode) root.getChildAt(1);
+        model.insertNodeInto(new DefaultMutableTreeNode("c1_2"), c1, 2);
+        Assertions.assertEquals(Arrays.asList("root", "c0", "c0_0", "c0_1", "c1", "c1_0", "c1_1", "c1_2", "c2",
+                "c2_0", "c2_1"), names(caching));
+
+        model.removeNodeFromParent((DefaultMutableTreeNode) root.getChildAt(0));
+        Assertions.assertEquals(Arrays.asList("root", "c1", "c1_0", "c1_1", "c1_2", "c2", "c2_0", "c2_1"),
+                names(caching));
+
+        ((DefaultMutableTreeNode) c1.getChildAt(0)).add(new DefaultMutableTreeNode("c1_0_0"));
+        c1.remove(1);
+        model.nodeStructureChanged(c1);
+        Assertions.assertEquals(Arrays.asList("root", "c1", "c1_0", "c1_0_0", "c1_2", "c2", "c2_0", "c2_1"),
+                names(caching));
+
+        caching.dispose();
+        Assertions.assertEquals(listenerCount, model.getTreeModelListeners().length);
+        Assertions.assertEquals(0, caching.getCachedParentCount());
+    }
+
+    @Test
+    public void invalidMaxCachedParents() {
+        DefaultTreeModel model = createModel();
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new CachingTreeStructure(new TreeModelTreeStructure(model, false), 0));
+    }
+}
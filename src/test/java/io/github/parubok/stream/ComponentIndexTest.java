@@ -0,0 +1,105 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.text.JTextComponent;
+import java.awt.Component;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+public class ComponentIndexTest {
+
+    private static <T extends Component> T named(T component, String name) {
+        component.setName(name);
+        return component;
+    }
+
+    @Test
+    public void lookup() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            JPanel root = named(new JPanel(), "root");
+            JPanel panel = named(new JPanel(), "panel");
+            JTextField field1 = named(new JTextField(), "field");
+            JTextField field2 = named(new JTextField(), "field2");
+            JLabel label = named(new JLabel(), "field");
+            root.add(panel);
+            root.add(label);
+            panel.add(field1);
+            panel.add(field2);
+            ComponentIndex index = new ComponentIndex(root);
+            Assertions.assertEquals(5, index.size());
+            Assertions.assertEquals(new HashSet<>(Arrays.asList(field1, field2)),
+                    index.getComponents(JTextField.class));
+            Assertions.assertEquals(new HashSet<>(Arrays.asList(field1, field2)),
+                    index.getComponents(JTextComponent.class));
+            Assertions.assertEquals(SwingStreamUtils.streamDescendants(root).collect(Collectors.toSet()),
+                    index.getComponents(JComponent.class));
+            Assertions.assertEquals(new HashSet<>(Arrays.asList(field1, label)), index.getComponentsByName("field"));
+            Assertions.assertEquals(Optional.of(field1), index.find(JTextField.class, "field"));
+            Assertions.assertEquals(Optional.of(label), index.find(JLabel.class, "field"));
+            Assertions.assertEquals(Optional.empty(), index.find(JLabel.class, "field2"));
+            Assertions.assertEquals(Collections.emptySet(), index.getComponents(String.class));
+        });
+    }
+
+    @Test
+    public void hierarchyChanges() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            JPanel root = named(new JPanel(), "root");
+            JPanel panel = named(new JPanel(), "panel");
+            JTextField field = named(new JTextField(), "field");
+            root.add(panel);
+            ComponentIndex index = new ComponentIndex(root);
+            Assertions.assertEquals(2, index.size());
+
+            // add to indexed container:
+            panel.add(field);
+            Assertions.assertEquals(Optional.of(field), index.find(JTextField.class, "field"));
+
+            // rename:
+            field.setName("renamed");
+            Assertions.assertEquals(Optional.empty(), index.find(JTextField.class, "field"));
+            Assertions.assertEquals(Optional.of(field), index.find(JTextField.class, "renamed"));
+
+            // add subtree, then modify it:
+            JPanel subtree = named(new JPanel(), "subtree");
+            JLabel label = named(new JLabel(), "label");
+            subtree.add(label);
+            root.add(subtree);
+            Assertions.assertTrue(index.contains(label));
+            JLabel label2 = named(new JLabel(), "label");
+            subtree.add(label2);
+            Assertions.assertEquals(new HashSet<>(Arrays.asList(label, label2)), index.getComponentsByName("label"));
+
+            // remove subtree:
+            root.remove(panel);
+            Assertions.assertFalse(index.contains(field));
+            Assertions.assertFalse(index.contains(panel));
+            Assertions.assertEquals(Collections.emptySet(), index.getComponents(JTextField.class));
+            panel.add(named(new JTextField(), "other"));
+            Assertions.assertEquals(Collections.emptySet(), index.getComponents(JTextField.class));
+
+            // move between containers:
+            subtree.add(field);
+            Assertions.assertTrue(index.contains(field));
+            root.add(field);
+            Assertions.assertTrue(index.contains(field));
+            Assertions.assertEquals(5, index.size());
+
+            index.dispose();
+            Assertions.assertEquals(0, index.size());
+            root.add(named(new JTextField(), "x"));
+            Assertions.assertEquals(0, index.size());
+            Assertions.assertEquals(0, root.getContainerListeners().length);
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+public class ComponentTreeSnapshotTest {
+
+    private static JPanel createPanel() {
+        JPanel panel = new JPanel(null);
+        panel.setName("root");
+        for (int i = 0; i < 10; i++) {
+            JPanel child = new JPanel(null);
+            child.setName("p" + i);
+            child.setBounds(i * 10, 0, 10, 10);
+            child.add(new JLabel("label" + i));
+            child.add(new JButton("button" + i));
+            JTextField field = new JTextField("field" + i);
+            field.setVisible(i % 2 == 0);
+            child.add(field);
+            panel.add(child);
+        }
+        return panel;
+    }
+
+    @Test
+    public void capture_offEdt() throws Exception {
+        AtomicReference<JPanel> panelRef = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> panelRef.set(createPanel()));
+        ComponentTreeSnapshot snapshot = ComponentTreeSnapshot.capture(panelRef.get(), ComponentSnapshot.Property.NAME,
+                ComponentSnapshot.Property.TEXT, ComponentSnapshot.Property.VISIBLE);
+        Assertions.assertEquals(41, snapshot.size());
+        Assertions.assertEquals(41, snapshot.parallelStream().count());
+        Assertions.assertEquals("root", snapshot.getRoot().getName());
+        Assertions.assertEquals(JPanel.class, snapshot.getRoot().getComponentClass());
+        Assertions.assertEquals(10, snapshot.getRoot().getChildCount());
+
+        List<String> texts = snapshot.stream()
+                .map(ComponentSnapshot::getText)
+                .filter(text -> text != null)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(Arrays.asList("label0", "button0", "field0"), texts.subList(0, 3));
+        Assertions.assertEquals(30, texts.size());
+        Assertions.assertEquals(5, snapshot.parallelStream()
+                .filter(c -> JTextField.class.equals(c.getComponentClass()) && c.isVisible())
+                .count());
+        Assertions.assertEquals(snapshot.stream().collect(Collectors.toList()),
+                SwingStreamUtils.stream(snapshot).map(KTreePath::getLastPathComponent).collect(Collectors.toList()));
+
+        // not captured:
+        Assertions.assertThrows(IllegalStateException.class, () -> snapshot.getRoot().getBounds());
+    }
+
+    @Test
+    public void capture_onEdt() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            JPanel panel = createPanel();
+            ComponentTreeSnapshot snapshot = ComponentTreeSnapshot.capture(panel, ComponentSnapshot.Property.BOUNDS);
+            ComponentSnapshot p3 = snapshot.getRoot().getChild(3);
+            Assertions.assertEquals(new Rectangle(30, 0, 10, 10), p3.getBounds());
+            p3.getBounds().x = 1000; // returns a copy
+            Assertions.assertEquals(new Rectangle(30, 0, 10, 10), p3.getBounds());
+            Assertions.assertThrows(IllegalStateException.class, p3::getName);
+            Assertions.assertThrows(IllegalStateException.class, p3::getText);
+            Assertions.assertEquals(3, p3.getChildren().size());
+
+            // the snapshot is not affected by later changes:
+            panel.removeAll();
+            Assertions.assertEquals(41, snapshot.stream().count());
+            ComponentTreeSnapshot empty = ComponentTreeSnapshot.capture(panel);
+            Assertions.assertEquals(1, empty.size());
+            Assertions.assertTrue(empty.getRoot().getProperties().isEmpty());
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import java.awt.Component;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ComponentTreeStructureTest {
+
+    /**
+     * Panel which counts bulk reads of its children and does not allow reading them one by one.
+     */
+    private static class SnapshotOnlyPanel extends JPanel {
+        int snapshots;
+
+        SnapshotOnlyPanel(String name) {
+            setName(name);
+        }
+
+        @Override
+        public Component getComponent(int n) {
+            throw new AssertionError("getComponent is called");
+        }
+
+        @Override
+        public Component[] getComponents() {
+            snapshots++;
+            return super.getComponents();
+        }
+    }
+
+    private static JLabel label(String name) {
+        JLabel label = new JLabel();
+        label.setName(name);
+        return label;
+    }
+
+    @Test
+    public void snapshotPerContainer() {
+        SnapshotOnlyPanel root = new SnapshotOnlyPanel("root");
+        SnapshotOnlyPanel p1 = new SnapshotOnlyPanel("p1");
+        SnapshotOnlyPanel p2 = new SnapshotOnlyPanel("p2");
+        root.add(p1);
+        root.add(label("l1"));
+        root.add(p2);
+        p1.add(label("l2"));
+        p1.add(label("l3"));
+        List<String> names = SwingStreamUtils.streamDescendants(root)
+                .map(Component::getName)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(Arrays.asList("root", "p1", "l2", "l3", "l1", "p2"), names);
+        Assertions.assertEquals(1, root.snapshots);
+        Assertions.assertEquals(1, p1.snapshots);
+        Assertions.assertEquals(1, p2.snapshots);
+    }
+
+    @Test
+    public void snapshotDroppedAfterLastChild() {
+        JPanel root = new JPanel();
+        root.add(label("l1"));
+        root.add(label("l2"));
+        ComponentTreeStructure structure = new ComponentTreeStructure(root);
+        Assertions.assertEquals(2, structure.getChildCount(root));
+        root.add(label("l3")); // not seen until the snapshot is dropped
+        Assertions.assertEquals(2, structure.getChildCount(root));
+        Assertions.assertEquals("l2", ((Component) structure.getChild(root, 1)).getName());
+        Assertions.assertEquals(3, structure.getChildCount(root));
+
+        ComponentTreeStructure noSnapshots = new ComponentTreeStructure(root, false);
+        Assertions.assertEquals(3, noSnapshots.getChildCount(root));
+        Assertions.assertEquals("l3", ((Component) noSnapshots.getChild(root, 2)).getName());
+        Assertions.assertEquals(0, noSnapshots.getChildCount(structure.getChild(root, 0)));
+    }
+}
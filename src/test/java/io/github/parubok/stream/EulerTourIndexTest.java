@@ -0,0 +1,56 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class EulerTourIndexTest {
+
+    @Test
+    public void numbersMatchTraversals() {
+        DefaultMutableTreeNode root = TestTrees.createIrregularTree("r", 4, 3);
+        TreeModelTreeStructure treeStructure = new TreeModelTreeStructure(new DefaultTreeModel(root), false);
+        EulerTourIndex index = EulerTourIndex.of(treeStructure);
+        List<KTreePath> preOrder = SwingStreamUtils.stream(treeStructure, TreeTraversalType.PRE_ORDER)
+                .collect(Collectors.toList());
+        List<KTreePath> postOrder = SwingStreamUtils.stream(treeStructure, TreeTraversalType.POST_ORDER)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(preOrder.size(), index.size());
+        for (int i = 0; i < preOrder.size(); i++) {
+            DefaultMutableTreeNode node = (DefaultMutableTreeNode) preOrder.get(i).getLastPathComponent();
+            Assertions.assertEquals(i, index.getPreOrderNumber(node));
+            Assertions.assertSame(node, index.getNode(i));
+            Assertions.assertEquals(node.getLevel(), index.getDepth(node));
+            Assertions.assertSame(node.getParent(), index.getParent(node));
+            Assertions.assertEquals(SwingStreamUtils.stream(new DefaultTreeModel(node)).count(),
+                    index.getSubtreeSize(node));
+            Assertions.assertEquals(node, postOrder.get(index.getPostOrderNumber(node)).getLastPathComponent());
+        }
+    }
+
+    @Test
+    public void ancestorAndSubtree() {
+        DefaultMutableTreeNode root = TestTrees.createIrregularTree("r", 3, 3);
+        EulerTourIndex index = EulerTourIndex.of(new TreeModelTreeStructure(new DefaultTreeModel(root), false));
+        DefaultMutableTreeNode child0 = (DefaultMutableTreeNode) root.getChildAt(0);
+        DefaultMutableTreeNode leaf = child0.getFirstLeaf();
+        DefaultMutableTreeNode child2 = (DefaultMutableTreeNode) root.getChildAt(2);
+        Assertions.assertTrue(index.isAncestor(root, leaf));
+        Assertions.assertTrue(index.isAncestor(child0, leaf));
+        Assertions.assertFalse(index.isAncestor(child2, leaf));
+        Assertions.assertFalse(index.isAncestor(leaf, child0));
+        Assertions.assertFalse(index.isAncestor(leaf, leaf));
+        Assertions.assertFalse(index.isAncestor(new DefaultMutableTreeNode(), leaf));
+        Assertions.assertEquals(SwingStreamUtils.stream(new DefaultTreeModel(child2))
+                        .map(KTreePath::getLastPathComponent)
+                        .collect(Collectors.toList()),
+                index.streamSubtree(child2).collect(Collectors.toList()));
+        Assertions.assertEquals(-1, index.getPreOrderNumber(new DefaultMutableTreeNode()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.getDepth(new DefaultMutableTreeNode()));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> index.getNode(index.size()));
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.JTree;
+import javax.swing.SwingUtilities;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class FilteredTreeModelTest {
+
+    private static Predicate<Object> nameContains(String s) {
+        return node -> ((DefaultMutableTreeNode) node).getUserObject().toString().contains(s);
+    }
+
+    /**
+     * @return Expected paths of the filtered model - the root and the paths of nodes with matching descendants
+     * (incl. the nodes themselves).
+     */
+    private static List<KTreePath> expectedPaths(TreeModel source, Predicate<Object> filter) {
+        return SwingStreamUtils.stream(source)
+                .filter(path -> path.getParentPath() == null || SwingStreamUtils.stream(
+                        new DefaultTreeModel((DefaultMutableTreeNode) path.getLastPathComponent()))
+                        .anyMatch(p -> filter.test(p.getLastPathComponent())))
+                .collect(Collectors.toList());
+    }
+
+    private static void assertConsistent(FilteredTreeModel model) {
+        List<KTreePath> paths = SwingStreamUtils.stream(model).collect(Collectors.toList());
+        Assertions.assertEquals(expectedPaths(model.getSource(), model.getFilter()), paths);
+        for (KTreePath path : paths) {
+            KTreePath parentPath = path.getParentPath();
+            if (parentPath != null) {
+                Object parent = parentPath.getLastPathComponent();
+                int index = model.getIndexOfChild(parent, path.getLastPathComponent());
+                Assertions.assertSame(path.getLastPathComponent(), model.getChild(parent, index));
+            }
+            Assertions.assertEquals(model.getFilter().test(path.getLastPathComponent()),
+                    model.isMatching(path.getLastPathComponent()));
+        }
+    }
+
+    @Test
+    public void filter() {
+        DefaultTreeModel source = new DefaultTreeModel(TestTrees.createIrregularTree("r", 4, 4));
+        FilteredTreeModel model = new FilteredTreeModel(source, nameContains("2_2"));
+        assertConsistent(model);
+        DefaultMutableTreeNode root = (DefaultMutableTreeNode) source.getRoot();
+        DefaultMutableTreeNode r2 = (DefaultMutableTreeNode) root.getChildAt(2);
+        DefaultMutableTreeNode r22 = (DefaultMutableTreeNode) r2.getChildAt(2);
+        Assertions.assertEquals(2, model.getChildCount(root)); // r_0, r_2 (leaves r_1 and r_3 don't match)
+        Assertions.assertTrue(model.isIncluded(r2));
+        Assertions.assertFalse(model.isMatching(r2));
+        Assertions.assertTrue(model.isMatching(r22));
+        Assertions.assertEquals(r22.getChildCount(), model.getChildCount(r22));
+        Assertions.assertSame(r22, model.getChild(r2, 1)); // after r_2_0 (r_2_0_2_2 matches)
+        Assertions.assertEquals(1, model.getIndexOfChild(r2, r22));
+        Assertions.assertEquals(-1, model.getIndexOfChild(source.getRoot(), new DefaultMutableTreeNode("x")));
+        Assertions.assertNull(model.getChild(source.getRoot(), 100));
+
+        model.narrowFilter(nameContains("2_2_"));
+        assertConsistent(model);
+        model.setFilter(nameContains("3"));
+        assertConsistent(model);
+        model.setFilter(node -> false);
+        assertConsistent(model);
+        Assertions.assertEquals(1, SwingStreamUtils.stream(model).count());
+    }
+
+    @Test
+    public void sourceEvents() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            DefaultMutableTreeNode root = TestTrees.createIrregularTree("r", 3, 4);
+            DefaultTreeModel source = new DefaultTreeModel(root);
+            FilteredTreeModel model = new FilteredTreeModel(source, nameContains("2"));
+            JTree tree = new JTree(model);
+            SwingStreamUtils.stream(model).forEach(tree::expandPath);
+            List<String> events = new ArrayList<>();
+            model.addTreeModelListener(new TreeModelListener() {
+                @Override
+                public void treeNodesChanged(TreeModelEvent e) {
+                    events.add("changed " + Arrays.toString(e.getChildIndices()));
+                }
+
+                @Override
+                public void treeNodesInserted(TreeModelEvent e) {
+                    events.add("inserted " + Arrays.toString(e.getChildIndices()));
+                }
+
+                @Override
+                public void treeNodesRemoved(TreeModelEvent e) {
+                    events.add("removed " + Arrays.toString(e.getChildIndices()));
+                }
+
+                @Override
+                public void treeStructureChanged(TreeModelEvent e) {
+                    events.add("structure");
+                }
+            });
+
+            // insert matching node under not included parent - the parent is included:
+            DefaultMutableTreeNode r0 = (DefaultMutableTreeNode) root.getChildAt(0);
+            DefaultMutableTreeNode r03 = (DefaultMutableTreeNode) r0.getChildAt(3);
+            Assertions.assertFalse(model.isIncluded(r03));
+            source.insertNodeInto(new DefaultMutableTreeNode("x2"), r03, 0);
+            assertConsistent(model);
+            Assertions.assertEquals(Arrays.asList("inserted [2]"), events);
+            events.clear();
+
+            // rename - the node is excluded, then its parent:
+            DefaultMutableTreeNode x2 = (DefaultMutableTreeNode) r03.getChildAt(0);
+            x2.setUserObject("x");
+            source.nodeChanged(x2);
+            assertConsistent(model);
+            Assertions.assertEquals(Arrays.asList("removed [0]", "removed [2]"), events);
+            events.clear();
+
+            // rename back:
+            x2.setUserObject("y2");
+            source.nodeChanged(x2);
+            assertConsistent(model);
+
+            // remove included node:
+            source.removeNodeFromParent((DefaultMutableTreeNode) root.getChildAt(2));
+            assertConsistent(model);
+            source.removeNodeFromParent(r03);
+            assertConsistent(model);
+
+            // insert subtree:
+            source.insertNodeInto(TestTrees.createIrregularTree("q", 2, 4), root, 0);
+            assertConsistent(model);
+            source.insertNodeInto(TestTrees.createIrregularTree("s", 2, 4), root, 3);
+            assertConsistent(model);
+
+            // structure change - the entries of the previous subtree are removed:
+            DefaultMutableTreeNode r02 = (DefaultMutableTreeNode) r0.getChildAt(2);
+            List<Object> previous = SwingStreamUtils.stream(new DefaultTreeModel(r02))
+                    .map(KTreePath::getLastPathComponent)
+                    .filter(model::isIncluded)
+                    .collect(Collectors.toList());
+            Assertions.assertFalse(previous.isEmpty());
+            r0.remove(r02);
+            source.nodeStructureChanged(r0);
+            assertConsistent(model);
+            for (Object node : previous) {
+                Assertions.assertFalse(model.isIncluded(node));
+            }
+            r0.removeAllChildren();
+            r0.add(new DefaultMutableTreeNode("z"));
+            source.nodeStructureChanged(r0);
+            assertConsistent(model);
+            r0.add(new DefaultMutableTreeNode("z2"));
+            source.nodeStructureChanged(r0);
+            assertConsistent(model);
+
+            source.setRoot(TestTrees.createIrregularTree("n", 2, 4));
+            assertConsistent(model);
+
+            // random modifications:
+            Random random = new Random(1);
+            for (int i = 0; i < 200; i++) {
+                List<DefaultMutableTreeNode> nodes = SwingStreamUtils.stream(source)
+                        .map(path -> (DefaultMutableTreeNode) path.getLastPathComponent())
+                        .collect(Collectors.toList());
+                DefaultMutableTreeNode node = nodes.get(random.nextInt(nodes.size()));
+                switch (random.nextInt(3)) {
+                    case 0:
+                        source.insertNodeInto(new DefaultMutableTreeNode("i" + random.nextInt(4)), node,
+                                random.nextInt(node.getChildCount() + 1));
+                        break;
+                    case 1:
+                        if (node.getParent() != null) {
+                            source.removeNodeFromParent(node);
+                        }
+                        break;
+                    default:
+                        node.setUserObject("c" + random.nextInt(4));
+                        source.nodeChanged(node);
+                }
+                assertConsistent(model);
+            }
+            final int listenerCount = source.getTreeModelListeners().length;
+            model.dispose();
+            Assertions.assertEquals(listenerCount - 1, source.getTreeModelListeners().length);
+        });
+    }
+}
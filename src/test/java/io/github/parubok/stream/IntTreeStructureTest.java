@@ -0,0 +1,105 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class IntTreeStructureTest {
+
+    /**
+     * Tree where root has 3 children and node {@code i} has {@code i % 3} children with ids {@code 3 * i + 1 ...}
+     * (only ids below the size are included).
+     */
+    private static IntTreeStructure createTree(int size) {
+        return new IntTreeStructure() {
+            @Override
+            public int getRoot() {
+                return size > 0 ? 0 : -1;
+            }
+
+            @Override
+            public int getChild(int parent, int index) {
+                return 3 * parent + 1 + index;
+            }
+
+            @Override
+            public int getChildCount(int parent) {
+                final int count = parent == 0 ? 3 : parent % 3;
+                return Math.max(0, Math.min(count, size - (3 * parent + 1)));
+            }
+        };
+    }
+
+    @Test
+    public void stream_sameAsBoxed() {
+        IntTreeStructure tree = createTree(1000);
+        for (TreeTraversalType type : TreeTraversalType.values()) {
+            List<Object> boxed = SwingStreamUtils.stream(tree.asTreeStructure(), type)
+                    .map(KTreePath::getLastPathComponent)
+                    .collect(Collectors.toList());
+            Assertions.assertEquals(boxed, SwingStreamUtils.stream(tree, type).boxed().collect(Collectors.toList()));
+            Assertions.assertTrue(boxed.size() > 10);
+        }
+    }
+
+    @Test
+    public void stream_smallTree() {
+        IntTreeStructure tree = createTree(7);
+        // 0 -> 1, 2, 3; 1 -> 4; 2 -> 7 (out of size); 3 -> none
+        Assertions.assertArrayEquals(new int[]{0, 1, 4, 2, 3}, SwingStreamUtils.stream(tree).toArray());
+        Assertions.assertArrayEquals(new int[]{4, 1, 2, 3, 0},
+                SwingStreamUtils.stream(tree, TreeTraversalType.POST_ORDER).toArray());
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 3, 4},
+                SwingStreamUtils.stream(tree, TreeTraversalType.BREADTH_FIRST).toArray());
+        Assertions.assertEquals(0, SwingStreamUtils.stream(createTree(0)).count());
+        Assertions.assertArrayEquals(new int[]{0}, SwingStreamUtils.stream(createTree(1)).toArray());
+    }
+
+    @Test
+    public void forEach_depths() {
+        IntTreeStructure tree = createTree(1000);
+        for (TreeTraversalType type : TreeTraversalType.values()) {
+            List<String> expected = SwingStreamUtils.stream(tree.asTreeStructure(), type)
+                    .map(path -> path.getLastPathComponent() + ":" + (path.getPathCount() - 1))
+                    .collect(Collectors.toList());
+            List<String> actual = new ArrayList<>();
+            SwingStreamUtils.forEach(tree, type, (node, depth) -> actual.add(node + ":" + depth));
+            Assertions.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void stream_duplicateIds() {
+        // node 3 is a child of both 1 and 2:
+        IntTreeStructure tree = new IntTreeStructure() {
+            @Override
+            public int getRoot() {
+                return 0;
+            }
+
+            @Override
+            public int getChild(int parent, int index) {
+                return parent == 0 ? index + 1 : 3;
+            }
+
+            @Override
+            public int getChildCount(int parent) {
+                return parent == 0 ? 2 : (parent < 3 ? 1 : 0);
+            }
+        };
+        Assertions.assertArrayEquals(new int[]{0, 1, 3, 2, 3}, SwingStreamUtils.stream(tree).toArray());
+        Assertions.assertArrayEquals(new int[]{0, 1, 3, 2}, SwingStreamUtils.stream(tree).distinct().toArray());
+    }
+
+    @Test
+    public void asTreeStructure() {
+        TreeStructure treeStructure = createTree(7).asTreeStructure();
+        Assertions.assertEquals(0, treeStructure.getRoot());
+        Assertions.assertEquals(3, treeStructure.getChildCount(0));
+        Assertions.assertEquals(4, treeStructure.getChild(1, 0));
+        Assertions.assertNull(createTree(0).asTreeStructure().getRoot());
+    }
+}
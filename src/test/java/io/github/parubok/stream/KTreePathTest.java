@@ -56,4 +56,53 @@ public class KTreePathTest {
         Assertions.assertFalse(path.isLastComponent("com3"));
         Assertions.assertFalse(path.isLastComponent(null));
     }
+
+    @Test
+    public void pathByAddingChild_sharesParent() {
+        KTreePath p = KTreePath.of("root", "com1");
+        KTreePath p2 = p.pathByAddingChild("com2");
+        Assertions.assertSame(p, p2.getParentPath());
+        Assertions.assertSame(p.getParentPath(), p2.getParentPath().getParentPath());
+        Assertions.assertEquals(3, p2.getPathCount());
+        Assertions.assertArrayEquals(new Object[]{"root", "com1", "com2"}, p2.getPath());
+        Assertions.assertThrows(NullPointerException.class, () -> p.pathByAddingChild(null));
+    }
+
+    @Test
+    public void getParentPath() {
+        KTreePath path = new KTreePath(Arrays.asList("root", "com1", "com2"));
+        KTreePath parentPath = path.getParentPath();
+        Assertions.assertEquals(KTreePath.of("root", "com1"), parentPath);
+        Assertions.assertEquals(2, parentPath.getPathCount());
+        Assertions.assertEquals(KTreePath.of("root"), parentPath.getParentPath());
+        Assertions.assertNull(parentPath.getParentPath().getParentPath());
+    }
+
+    @Test
+    public void fromTreePath() {
+        TreePath treePath = new TreePath(new Object[]{"root", "com1", "com2"});
+        KTreePath path = new KTreePath(treePath);
+        Assertions.assertEquals(treePath, path);
+        Assertions.assertEquals(path, treePath);
+        Assertions.assertEquals(3, path.getPathCount());
+        Assertions.assertTrue(path.getParentPath() instanceof KTreePath);
+        Assertions.assertEquals(Arrays.asList("root", "com1"), path.getParentPath().asList());
+
+        KTreePath copy = new KTreePath(path);
+        Assertions.assertEquals(path, copy);
+        Assertions.assertSame(path.getParentPath(), copy.getParentPath());
+    }
+
+    @Test
+    public void emptyCollection() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new KTreePath(Collections.emptyList()));
+    }
+
+    @Test
+    public void indexOf_duplicates() {
+        KTreePath path = KTreePath.of("a", "b", "a", "c");
+        Assertions.assertEquals(0, path.indexOf("a"));
+        Assertions.assertEquals(1, path.indexOf("b"));
+        Assertions.assertEquals(3, path.indexOf("c"));
+    }
 }
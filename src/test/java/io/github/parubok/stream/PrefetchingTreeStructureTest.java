@@ -0,0 +1,127 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class PrefetchingTreeStructureTest {
+
+    /**
+     * Tree structure which simulates slow loading of children and records the loading threads.
+     */
+    private static class SlowTreeStructure extends TreeModelTreeStructure {
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        final Map<Object, AtomicInteger> loads = new ConcurrentHashMap<>();
+        volatile Object failingNode;
+
+        SlowTreeStructure(DefaultTreeModel model) {
+            super(model, false);
+        }
+
+        @Override
+        public int getChildCount(Object parent) {
+            threads.add(Thread.currentThread());
+            loads.computeIfAbsent(parent, p -> new AtomicInteger()).incrementAndGet();
+            if (parent == failingNode) {
+                throw new IllegalStateException("Unable to load " + parent);
+            }
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getChildCount(parent);
+        }
+    }
+
+    private static List<Object> stream(TreeStructure treeStructure, TreeTraversalType traversalType) {
+        return SwingStreamUtils.stream(treeStructure, traversalType)
+                .map(KTreePath::getLastPathComponent)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void sameOrderAsDecorated() {
+        DefaultTreeModel model = new DefaultTreeModel(TestTrees.createTree("root", 3, 4));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (TreeTraversalType type : TreeTraversalType.values()) {
+                SlowTreeStructure slow = new SlowTreeStructure(model);
+                PrefetchingTreeStructure prefetching = new PrefetchingTreeStructure(slow, executor, 10);
+                Assertions.assertEquals(stream(new TreeModelTreeStructure(model, false), type),
+                        stream(prefetching, type));
+                Assertions.assertTrue(slow.threads.size() > 1);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void eachNodeLoadedOnce() {
+        DefaultTreeModel model = new DefaultTreeModel(TestTrees.createTree("root", 3, 4));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (TreeTraversalType type : TreeTraversalType.values()) {
+                for (int maxPrefetchedNodes : new int[] {1, 10, 1_000}) {
+                    SlowTreeStructure slow = new SlowTreeStructure(model);
+                    PrefetchingTreeStructure prefetching = new PrefetchingTreeStructure(slow, executor,
+                            maxPrefetchedNodes);
+                    Assertions.assertEquals(85, stream(prefetching, type).size());
+                    Assertions.assertEquals(85, slow.loads.size());
+                    for (AtomicInteger count : slow.loads.values()) {
+                        Assertions.assertEquals(1, count.get());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void earlyTerminationDoesNotLeakToNextIteration() {
+        DefaultMutableTreeNode root = TestTrees.createTree("root", 3, 4);
+        DefaultTreeModel model = new DefaultTreeModel(root);
+        SlowTreeStructure slow = new SlowTreeStructure(model);
+        PrefetchingTreeStructure prefetching = new PrefetchingTreeStructure(slow);
+        Assertions.assertTrue(SwingStreamUtils.stream(prefetching)
+                .anyMatch(path -> path.getPathCount() == 3));
+        // children of root_1 are loaded in background by the terminated iteration:
+        DefaultMutableTreeNode root1 = (DefaultMutableTreeNode) root.getChildAt(1);
+        root1.remove(0);
+        Assertions.assertEquals(stream(new TreeModelTreeStructure(model, false), TreeTraversalType.PRE_ORDER),
+                stream(prefetching, TreeTraversalType.PRE_ORDER));
+    }
+
+    @Test
+    public void defaultExecutor() {
+        DefaultTreeModel model = new DefaultTreeModel(TestTrees.createTree("root", 2, 4));
+        SlowTreeStructure slow = new SlowTreeStructure(model);
+        PrefetchingTreeStructure prefetching = new PrefetchingTreeStructure(slow);
+        Assertions.assertEquals(stream(new TreeModelTreeStructure(model, false), TreeTraversalType.PRE_ORDER),
+                stream(prefetching, TreeTraversalType.PRE_ORDER));
+        Assertions.assertEquals(21, stream(prefetching, TreeTraversalType.PRE_ORDER).size());
+    }
+
+    @Test
+    public void loadException() {
+        DefaultMutableTreeNode root = TestTrees.createTree("root", 2, 4);
+        SlowTreeStructure slow = new SlowTreeStructure(new DefaultTreeModel(root));
+        slow.failingNode = root.getChildAt(2);
+        PrefetchingTreeStructure prefetching = new PrefetchingTreeStructure(slow);
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class,
+                () -> stream(prefetching, TreeTraversalType.PRE_ORDER));
+        Assertions.assertEquals("Unable to load root_2", e.getMessage());
+    }
+}
@@ -9,15 +9,21 @@ import javax.swing.DefaultComboBoxModel;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTree;
 import javax.swing.SwingUtilities;
 import javax.swing.event.TableModelEvent;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
+import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableModel;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeCellEditor;
+import javax.swing.tree.TreeCellRenderer;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import java.awt.Component;
@@ -28,12 +34,24 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -602,6 +620,86 @@ public class SwingStreamUtilsTest {
         });
     }
 
+    @Test
+    public void streamDescendants_filter() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            JPanel panel = new JPanel();
+            JPanel hidden = new JPanel();
+            JLabel label1 = new JLabel();
+            JLabel label2 = new JLabel();
+            JLabel label3 = new JLabel();
+            panel.add(label1);
+            panel.add(hidden);
+            hidden.add(label2);
+            panel.add(label3);
+            hidden.setVisible(false);
+            label3.setVisible(false);
+            Assertions.assertEquals(asList(panel, label1), SwingStreamUtils.streamVisibleDescendants(panel)
+                    .collect(Collectors.toList()));
+            List<Component> tested = new ArrayList<>();
+            Assertions.assertEquals(asList(panel, label1, label3), SwingStreamUtils.streamDescendants(panel, c -> {
+                tested.add(c);
+                return c != hidden;
+            }).collect(Collectors.toList()));
+            // the subtree of the rejected component is not traversed:
+            Assertions.assertEquals(asList(panel, label1, hidden, label3), tested);
+            Assertions.assertEquals(0, SwingStreamUtils.streamDescendants(panel, c -> false).count());
+            // not showing - no window:
+            Assertions.assertEquals(0, SwingStreamUtils.streamShowingDescendants(panel).count());
+        });
+    }
+
+    @Test
+    public void streamVisibleDescendants_area() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            JPanel panel = new JPanel(null);
+            panel.setSize(200, 200);
+            JPanel panel2 = new JPanel(null);
+            panel2.setBounds(100, 100, 100, 100);
+            JLabel label1 = new JLabel();
+            label1.setBounds(0, 0, 50, 50);
+            JLabel label2 = new JLabel();
+            label2.setBounds(10, 10, 20, 20); // (110, 110) in the coordinates of panel
+            JLabel label3 = new JLabel();
+            label3.setBounds(60, 60, 20, 20); // (160, 160) in the coordinates of panel
+            panel.add(label1);
+            panel.add(panel2);
+            panel2.add(label2);
+            panel2.add(label3);
+            Assertions.assertEquals(asList(panel, panel2, label2),
+                    SwingStreamUtils.streamVisibleDescendants(panel, new Rectangle(90, 90, 30, 30))
+                            .collect(Collectors.toList()));
+            Assertions.assertEquals(asList(panel, label1, panel2, label2, label3),
+                    SwingStreamUtils.streamVisibleDescendants(panel, new Rectangle(0, 0, 200, 200))
+                            .collect(Collectors.toList()));
+            Assertions.assertEquals(0, SwingStreamUtils.streamVisibleDescendants(panel, new Rectangle(300, 0, 10, 10))
+                    .count());
+
+            // the descendants are clipped by the viewport:
+            JPanel view = new JPanel(null);
+            view.setPreferredSize(new Dimension(80, 1000));
+            JLabel shownLabel = new JLabel();
+            shownLabel.setBounds(0, 10, 50, 20);
+            JLabel scrolledOutLabel = new JLabel();
+            scrolledOutLabel.setBounds(0, 500, 50, 20);
+            view.add(shownLabel);
+            view.add(scrolledOutLabel);
+            JScrollPane scrollPane = new JScrollPane(view);
+            scrollPane.setBounds(0, 0, 100, 100);
+            scrollPane.doLayout();
+            scrollPane.getViewport().doLayout();
+            JPanel root = new JPanel(null);
+            root.setSize(100, 1000);
+            root.add(scrollPane);
+            List<Component> visible = SwingStreamUtils.streamVisibleDescendants(root, new Rectangle(0, 0, 100, 1000))
+                    .collect(Collectors.toList());
+            Assertions.assertTrue(visible.contains(shownLabel));
+            Assertions.assertFalse(visible.contains(scrolledOutLabel));
+            Assertions.assertThrows(NullPointerException.class,
+                    () -> SwingStreamUtils.streamVisibleDescendants(null, new Rectangle()));
+        });
+    }
+
     @Test
     public void getDescendantsIterable_6() throws Exception {
         SwingUtilities.invokeAndWait(() -> {
@@ -1141,6 +1239,250 @@ public class SwingStreamUtilsTest {
                 KTreePath.of(root, c2, c2_3)), paths);
     }
 
+    @Test
+    public void stream_treeModel_preOrder_wide() {
+        // not EDT
+        DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 3, 50);
+        DefaultTreeModel model = new DefaultTreeModel(root);
+        List<Object> expected = new ArrayList<>();
+        Collections.list(root.preorderEnumeration()).forEach(expected::add);
+        List<Object> actual = SwingStreamUtils.stream(model, TreeTraversalType.PRE_ORDER)
+                .peek(path -> Assertions.assertEquals(new TreePath(((DefaultMutableTreeNode) path
+                        .getLastPathComponent()).getPath()), path))
+                .map(TreePath::getLastPathComponent)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void stream_treeModel_postOrder_wide() {
+        // not EDT
+        DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 3, 50);
+        DefaultTreeModel model = new DefaultTreeModel(root);
+        List<Object> expected = new ArrayList<>();
+        Collections.list(root.postorderEnumeration()).forEach(expected::add);
+        List<Object> actual = SwingStreamUtils.stream(model, TreeTraversalType.POST_ORDER)
+                .peek(path -> Assertions.assertEquals(new TreePath(((DefaultMutableTreeNode) path
+                        .getLastPathComponent()).getPath()), path))
+                .map(TreePath::getLastPathComponent)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void stream_treeModel_breadthFirst() {
+        // not EDT
+        DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 3, 20);
+        DefaultTreeModel model = new DefaultTreeModel(root);
+        List<Object> expected = new ArrayList<>();
+        Collections.list(root.breadthFirstEnumeration()).forEach(expected::add);
+        List<Object> actual = SwingStreamUtils.stream(model, TreeTraversalType.BREADTH_FIRST)
+                .peek(path -> Assertions.assertEquals(new TreePath(((DefaultMutableTreeNode) path
+                        .getLastPathComponent()).getPath()), path))
+                .map(TreePath::getLastPathComponent)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void stream_treeModel_breadthFirst_rootOnly() {
+        // not EDT
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+        Iterator<KTreePath> iterator = SwingStreamUtils.asIterable(new DefaultTreeModel(root),
+                TreeTraversalType.BREADTH_FIRST).iterator();
+        Assertions.assertTrue(iterator.hasNext());
+        Assertions.assertEquals(KTreePath.of(root), iterator.next());
+        Assertions.assertFalse(iterator.hasNext());
+        Assertions.assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void stream_maxDepth() {
+        // not EDT
+        DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 4, 5);
+        DefaultTreeModel model = new DefaultTreeModel(root);
+        TreeStructure treeStructure = new TreeStructure() {
+            @Override
+            public Object getRoot() {
+                return root;
+            }
+
+            @Override
+            public Object getChild(Object parent, int index) {
+                return model.getChild(parent, index);
+            }
+
+            @Override
+            public int getChildCount(Object parent) {
+                // nodes at max depth must be treated as leaves:
+                Assertions.assertTrue(((DefaultMutableTreeNode) parent).getLevel() < 2);
+                return model.getChildCount(parent);
+            }
+        };
+        for (TreeTraversalType type : TreeTraversalType.values()) {
+            List<KTreePath> expected = SwingStreamUtils.stream(model, type)
+                    .filter(path -> path.getPathCount() < 4)
+                    .collect(Collectors.toList());
+            Assertions.assertEquals(expected, SwingStreamUtils.stream(treeStructure, type, 2)
+                    .collect(Collectors.toList()));
+            Assertions.assertEquals(expected, SwingStreamUtils.stream(model, type, 2)
+                    .collect(Collectors.toList()));
+            Assertions.assertEquals(singletonList(KTreePath.of(root)), SwingStreamUtils.stream(model, type, 0)
+                    .collect(Collectors.toList()));
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> SwingStreamUtils.stream(model, TreeTraversalType.PRE_ORDER, -1));
+    }
+
+    @Test
+    public void stream_descendFilter() {
+        // not EDT
+        DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 3, 6);
+        DefaultMutableTreeNode pruned = (DefaultMutableTreeNode) root.getChildAt(2);
+        DefaultTreeModel model = new DefaultTreeModel(root) {
+            @Override
+            public int getChildCount(Object parent) {
+                Assertions.assertNotSame(pruned, parent);
+                Assertions.assertFalse(pruned.isNodeDescendant((DefaultMutableTreeNode) parent));
+                return super.getChildCount(parent);
+            }
+
+            @Override
+            public Object getChild(Object parent, int index) {
+                Assertions.assertFalse(pruned.isNodeDescendant((DefaultMutableTreeNode) parent));
+                return super.getChild(parent, index);
+            }
+        };
+        for (TreeTraversalType type : TreeTraversalType.values()) {
+            List<KTreePath> expected = SwingStreamUtils.stream(createTreeStructure(root), type)
+                    .filter(path -> path.indexOf(pruned) < 0 || path.isLastComponent(pruned))
+                    .collect(Collectors.toList());
+            Assertions.assertEquals(expected, SwingStreamUtils.stream(model, type,
+                    path -> !path.isLastComponent(pruned)).collect(Collectors.toList()));
+            if (type == TreeTraversalType.PRE_ORDER) {
+                Assertions.assertEquals(expected, SwingStreamUtils.parallelStream(new TreeModelTreeStructure(model,
+                        false), path -> !path.isLastComponent(pruned)).collect(Collectors.toList()));
+            }
+        }
+    }
+
+    private static TreeStructure createTreeStructure(TreeNode root) {
+        return new TreeModelTreeStructure(new DefaultTreeModel(root), false);
+    }
+
+    @Test
+    public void parallelStream_treeStructure() {
+        // not EDT
+        DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 4, 12);
+        TreeStructure treeStructure = new TreeModelTreeStructure(new DefaultTreeModel(root), false);
+        List<KTreePath> expected = SwingStreamUtils.stream(treeStructure).collect(Collectors.toList());
+        Stream<KTreePath> stream = SwingStreamUtils.parallelStream(treeStructure);
+        Assertions.assertTrue(stream.isParallel());
+        Assertions.assertEquals(expected, stream.collect(Collectors.toList()));
+        Assertions.assertEquals(expected.size(), SwingStreamUtils.parallelStream(treeStructure).count());
+        Assertions.assertEquals(expected.size(), SwingStreamUtils.parallelStream(treeStructure)
+                .map(TreePath::getLastPathComponent)
+                .collect(Collectors.toSet()).size());
+    }
+
+    @Test
+    public void find_treeStructure() {
+        // not EDT
+        TreeSnapshot snapshot = TreeSnapshot.of(createTreeStructure(TestTrees.createIrregularTree("root", 4, 12)));
+        Predicate<KTreePath> predicate = path -> path.getLastPathComponent().toString().endsWith("_4_3");
+        List<KTreePath> expected = SwingStreamUtils.stream(snapshot).filter(predicate).collect(Collectors.toList());
+        Assertions.assertTrue(expected.size() > 1);
+        Assertions.assertEquals(expected.get(0), SwingStreamUtils.findFirst(snapshot, predicate).get());
+        Assertions.assertTrue(expected.contains(SwingStreamUtils.findAny(snapshot, predicate).get()));
+        Assertions.assertEquals(expected, SwingStreamUtils.findAll(snapshot, predicate));
+        Assertions.assertFalse(SwingStreamUtils.findFirst(snapshot, path -> false).isPresent());
+        Assertions.assertFalse(SwingStreamUtils.findAny(snapshot, path -> false).isPresent());
+        Assertions.assertTrue(SwingStreamUtils.findAll(snapshot, path -> false).isEmpty());
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            Optional<KTreePath> first = SwingStreamUtils.findFirst(snapshot, path -> {
+                threads.add(Thread.currentThread());
+                return predicate.test(path);
+            }, pool);
+            Assertions.assertEquals(expected.get(0), first.get());
+            Assertions.assertEquals(expected, SwingStreamUtils.findAll(snapshot, predicate, pool));
+            Assertions.assertTrue(threads.stream().allMatch(t -> t instanceof ForkJoinWorkerThread
+                    && ((ForkJoinWorkerThread) t).getPool() == pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void walk_treeModel() {
+        // not EDT
+        DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 3, 10);
+        DefaultTreeModel model = new DefaultTreeModel(root);
+        List<Object> entered = new ArrayList<>();
+        List<Object> left = new ArrayList<>();
+        boolean completed = SwingStreamUtils.walk(model, new TreeVisitor() {
+            @Override
+            public TreeVisitResult enterNode(Object node, Object parent, int depth, int childIndex) {
+                TreeNode treeNode = (TreeNode) node;
+                Assertions.assertEquals(treeNode.getParent(), parent);
+                Assertions.assertEquals(((DefaultMutableTreeNode) node).getLevel(), depth);
+                Assertions.assertEquals(parent == null ? 0 : treeNode.getParent().getIndex(treeNode), childIndex);
+                entered.add(node);
+                return TreeVisitResult.CONTINUE;
+            }
+
+            @Override
+            public TreeVisitResult leaveNode(Object node, Object parent, int depth, int childIndex) {
+                Assertions.assertEquals(((TreeNode) node).getParent(), parent);
+                Assertions.assertEquals(((DefaultMutableTreeNode) node).getLevel(), depth);
+                left.add(node);
+                return TreeVisitResult.CONTINUE;
+            }
+        });
+        Assertions.assertTrue(completed);
+        Assertions.assertEquals(Collections.list(root.preorderEnumeration()), entered);
+        Assertions.assertEquals(Collections.list(root.postorderEnumeration()), left);
+    }
+
+    @Test
+    public void walk_skipSubtree_skipSiblings_terminate() {
+        // not EDT
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+        DefaultMutableTreeNode c1 = new DefaultMutableTreeNode("c1");
+        DefaultMutableTreeNode c2 = new DefaultMutableTreeNode("c2");
+        DefaultMutableTreeNode c3 = new DefaultMutableTreeNode("c3");
+        DefaultMutableTreeNode c1_1 = new DefaultMutableTreeNode("c1_1");
+        DefaultMutableTreeNode c2_1 = new DefaultMutableTreeNode("c2_1");
+        DefaultMutableTreeNode c2_2 = new DefaultMutableTreeNode("c2_2");
+        DefaultMutableTreeNode c3_1 = new DefaultMutableTreeNode("c3_1");
+        c1.add(c1_1);
+        c2.add(c2_1);
+        c2.add(c2_2);
+        c3.add(c3_1);
+        root.add(c1);
+        root.add(c2);
+        root.add(c3);
+        DefaultTreeModel model = new DefaultTreeModel(root);
+        List<Object> visited = new ArrayList<>();
+        boolean completed = SwingStreamUtils.walk(model, new TreeVisitor() {
+            @Override
+            public TreeVisitResult enterNode(Object node, Object parent, int depth, int childIndex) {
+                visited.add(node);
+                if (node == c1) {
+                    return TreeVisitResult.SKIP_SUBTREE;
+                }
+                if (node == c2_1) {
+                    return TreeVisitResult.SKIP_SIBLINGS;
+                }
+                return node == c3_1 ? TreeVisitResult.TERMINATE : TreeVisitResult.CONTINUE;
+            }
+        });
+        Assertions.assertFalse(completed);
+        Assertions.assertEquals(asList(root, c1, c2, c2_1, c3, c3_1), visited);
+    }
+
     @Test
     public void streamTree_1() throws Exception {
         SwingUtilities.invokeAndWait(() -> {
@@ -1208,6 +1550,132 @@ public class SwingStreamUtilsTest {
                 SwingStreamUtils.stream(s).collect(Collectors.toList()));
     }
 
+    @Test
+    public void streamVisiblePaths() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 3, 4);
+            DefaultTreeModel model = new DefaultTreeModel(root);
+            JTree tree = new JTree(model);
+            tree.expandPath(new TreePath(((DefaultMutableTreeNode) root.getChildAt(0)).getPath()));
+            tree.expandPath(new TreePath(((DefaultMutableTreeNode) root.getChildAt(2).getChildAt(2)).getPath()));
+            tree.collapsePath(new TreePath(((DefaultMutableTreeNode) root.getChildAt(2)).getPath()));
+            for (boolean rootVisible : new boolean[]{true, false}) {
+                tree.setRootVisible(rootVisible);
+                List<TreePath> rows = new ArrayList<>();
+                for (int i = 0; i < tree.getRowCount(); i++) {
+                    rows.add(tree.getPathForRow(i));
+                }
+                Assertions.assertEquals(rows, SwingStreamUtils.streamVisiblePaths(tree)
+                        .collect(Collectors.toList()));
+            }
+            tree.collapsePath(new TreePath(root));
+            Assertions.assertEquals(0, SwingStreamUtils.streamVisiblePaths(tree).count());
+            tree.setRootVisible(true);
+            Assertions.assertEquals(singletonList(new TreePath(root)), SwingStreamUtils.streamVisiblePaths(tree)
+                    .collect(Collectors.toList()));
+        });
+    }
+
+    @Test
+    public void streamVisiblePaths_doesNotLoadCollapsedNodes() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 3, 4);
+            DefaultMutableTreeNode collapsed = (DefaultMutableTreeNode) root.getChildAt(2);
+            JTree tree = new JTree(new DefaultTreeModel(root));
+            tree.setModel(new DefaultTreeModel(root) {
+                @Override
+                public int getChildCount(Object parent) {
+                    Assertions.assertNotSame(collapsed, parent);
+                    return super.getChildCount(parent);
+                }
+            });
+            Assertions.assertEquals(5, SwingStreamUtils.streamVisiblePaths(tree).count());
+        });
+    }
+
+    private static List<TreePath> rows(JTree tree) {
+        List<TreePath> rows = new ArrayList<>();
+        for (int i = 0; i < tree.getRowCount(); i++) {
+            rows.add(tree.getPathForRow(i));
+        }
+        return rows;
+    }
+
+    @Test
+    public void expandPaths_collapsePaths() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 4, 4);
+            JTree tree = new JTree(new DefaultTreeModel(root));
+            JTree expected = new JTree(new DefaultTreeModel(root));
+            List<TreePath> expansions = new ArrayList<>();
+            tree.addTreeExpansionListener(new TreeExpansionListener() {
+                @Override
+                public void treeExpanded(TreeExpansionEvent event) {
+                    expansions.add(event.getPath());
+                }
+
+                @Override
+                public void treeCollapsed(TreeExpansionEvent event) {
+                }
+            });
+            Predicate<KTreePath> predicate = path -> path.getLastPathComponent().toString().endsWith("_2");
+            TreeCellRenderer renderer = tree.getCellRenderer();
+            TreeCellEditor editor = tree.getCellEditor();
+            SwingStreamUtils.expandPaths(tree, predicate);
+            // the tree UI is not reinstalled:
+            Assertions.assertSame(renderer, tree.getCellRenderer());
+            Assertions.assertSame(editor, tree.getCellEditor());
+            Assertions.assertTrue(tree.getScrollsOnExpand());
+            SwingStreamUtils.stream(expected).filter(predicate).forEach(expected::expandPath);
+            Assertions.assertEquals(rows(expected), rows(tree));
+            Assertions.assertTrue(tree.getRowCount() > 10);
+            Assertions.assertTrue(expansions.contains(new TreePath(new Object[]{root, root.getChildAt(2)})));
+            Assertions.assertNotNull(tree.getUI());
+
+            SwingStreamUtils.collapsePaths(tree, path -> path.getPathCount() == 2);
+            Assertions.assertEquals(5, tree.getRowCount());
+            SwingStreamUtils.expandPaths(tree, Stream.of(new TreePath(root)));
+            Assertions.assertEquals(5, tree.getRowCount());
+            // the previously expanded descendants are shown again:
+            SwingStreamUtils.expandPaths(tree, Stream.of(new TreePath(new Object[]{root, root.getChildAt(2)})));
+            expected.collapsePath(new TreePath(new Object[]{root, root.getChildAt(0)}));
+            Assertions.assertEquals(rows(expected), rows(tree));
+        });
+    }
+
+    @Test
+    public void getExpandedPaths_setExpandedPaths() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 4, 4);
+            JTree tree = new JTree(new DefaultTreeModel(root));
+            TreePath path0 = new TreePath(new Object[]{root, root.getChildAt(0)});
+            TreePath path02 = path0.pathByAddingChild(root.getChildAt(0).getChildAt(2));
+            TreePath path2 = new TreePath(new Object[]{root, root.getChildAt(2)});
+            tree.expandPath(path02);
+            tree.expandPath(path2);
+            Set<TreePath> expanded = SwingStreamUtils.getExpandedPaths(tree);
+            Assertions.assertEquals(new HashSet<>(asList(path02, path2)), expanded);
+            List<TreePath> rows = rows(tree);
+
+            SwingStreamUtils.expandPaths(tree, path -> true);
+            Assertions.assertNotEquals(rows, rows(tree));
+            SwingStreamUtils.setExpandedPaths(tree, expanded);
+            Assertions.assertEquals(rows, rows(tree));
+            Assertions.assertEquals(expanded, SwingStreamUtils.getExpandedPaths(tree));
+
+            SwingStreamUtils.setExpandedPaths(tree, Collections.singleton(new TreePath(root)));
+            Assertions.assertEquals(5, tree.getRowCount());
+            Assertions.assertEquals(Collections.singleton(new TreePath(root)), SwingStreamUtils.getExpandedPaths(tree));
+
+            SwingStreamUtils.setExpandedPaths(tree, Collections.emptySet());
+            Assertions.assertEquals(1, tree.getRowCount());
+            Assertions.assertEquals(Collections.emptySet(), SwingStreamUtils.getExpandedPaths(tree));
+            // the hidden expanded descendants of the restored path are collapsed too:
+            SwingStreamUtils.setExpandedPaths(tree, Collections.singleton(path0));
+            Assertions.assertEquals(Collections.singleton(path0), SwingStreamUtils.getExpandedPaths(tree));
+        });
+    }
+
     @Test
     public void modifyingTreeModelDuringIterationShouldResultInConcurrentModificationException() throws Exception {
         SwingUtilities.invokeAndWait(() -> {
@@ -1275,4 +1743,152 @@ public class SwingStreamUtilsTest {
             Assertions.assertEquals(0, listeners.size());
         });
     }
+
+    @Test
+    public void toTreeModel_keys() {
+        // not EDT
+        // elements are "key:parentKey"
+        List<String> elements = asList("a:", "b:a", "c:", "d:a", "e:d", "f:c");
+        Function<String, String> key = e -> e.substring(0, e.indexOf(':'));
+        Function<String, String> parentKey = e -> e.endsWith(":") ? null : e.substring(e.indexOf(':') + 1);
+        DefaultTreeModel model = elements.parallelStream()
+                .collect(SwingStreamUtils.toTreeModel(key, parentKey, "root"));
+        Assertions.assertEquals(asList("root", "a:", "b:a", "d:a", "e:d", "c:", "f:c"),
+                SwingStreamUtils.stream(model)
+                        .map(path -> path.getLastPathComponent(DefaultMutableTreeNode.class).getUserObject())
+                        .collect(Collectors.toList()));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> Stream.of("a:", "a:")
+                .collect(SwingStreamUtils.toTreeModel(key, parentKey, null)));
+        Assertions.assertThrows(IllegalStateException.class, () -> Stream.of("a:", "b:x")
+                .collect(SwingStreamUtils.toTreeModel(key, parentKey, null)));
+        Assertions.assertThrows(IllegalStateException.class, () -> Stream.of("a:b", "b:a")
+                .collect(SwingStreamUtils.toTreeModel(key, parentKey, null)));
+    }
+
+    @Test
+    public void toTreeModel_supplier() throws Exception {
+        // not EDT
+        DefaultTreeModel model = new DefaultTreeModel(new DefaultMutableTreeNode("old"));
+        List<String> events = new ArrayList<>();
+        model.addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+                events.add("changed");
+            }
+
+            @Override
+            public void treeNodesInserted(TreeModelEvent e) {
+                events.add("inserted");
+            }
+
+            @Override
+            public void treeNodesRemoved(TreeModelEvent e) {
+                events.add("removed");
+            }
+
+            @Override
+            public void treeStructureChanged(TreeModelEvent e) {
+                Assertions.assertTrue(SwingUtilities.isEventDispatchThread());
+                events.add("structure");
+            }
+        });
+        DefaultTreeModel result = IntStream.range(0, 10_000)
+                .boxed()
+                .collect(SwingStreamUtils.toTreeModel(() -> model, i -> i, i -> i < 10 ? null : i / 10, "root"));
+        Assertions.assertSame(model, result);
+        Assertions.assertEquals(singletonList("structure"), events);
+        Assertions.assertEquals(10_001, SwingStreamUtils.stream(model).count());
+        DefaultMutableTreeNode root = (DefaultMutableTreeNode) model.getRoot();
+        Assertions.assertEquals(10, root.getChildCount());
+        Assertions.assertEquals(9999, ((DefaultMutableTreeNode) root.getLastLeaf()).getUserObject());
+    }
+
+    @Test
+    public void toTreeModel_paths() {
+        // not EDT
+        DefaultMutableTreeNode root = TestTrees.createIrregularTree("root", 3, 6);
+        DefaultTreeModel source = new DefaultTreeModel(root);
+        DefaultTreeModel copy = SwingStreamUtils.stream(source).parallel().collect(SwingStreamUtils.toTreeModel());
+        Function<TreePath, List<Object>> toUserObjects = path -> Arrays.stream(path.getPath())
+                .map(node -> ((DefaultMutableTreeNode) node).getUserObject())
+                .collect(Collectors.toList());
+        Assertions.assertEquals(SwingStreamUtils.stream(source).map(KTreePath::asList).collect(Collectors.toList()),
+                SwingStreamUtils.stream(copy).map(toUserObjects).collect(Collectors.toList()));
+
+        // only leaf paths - the ancestors are created:
+        DefaultTreeModel fromLeaves = SwingStreamUtils.stream(source)
+                .filter(path -> source.isLeaf(path.getLastPathComponent()))
+                .collect(SwingStreamUtils.toTreeModel());
+        Assertions.assertEquals(SwingStreamUtils.stream(source).count(), SwingStreamUtils.stream(fromLeaves).count());
+
+        Assertions.assertNull(Stream.<KTreePath>empty().collect(SwingStreamUtils.toTreeModel()).getRoot());
+        Assertions.assertThrows(IllegalStateException.class, () -> Stream.of(KTreePath.of("a"), KTreePath.of("b"))
+                .collect(SwingStreamUtils.toTreeModel()));
+    }
+
+    @Test
+    public void forEachOnEdt() throws Exception {
+        AtomicReference<JPanel> panelRef = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            JPanel panel = new JPanel();
+            for (int i = 0; i < 20; i++) {
+                panel.add(new JLabel("l" + i));
+            }
+            panelRef.set(panel);
+        });
+        List<Integer> progress = new ArrayList<>();
+        CompletableFuture<Integer> future = SwingStreamUtils.forEachOnEdt(
+                SwingStreamUtils.streamDescendants(panelRef.get()), c -> {
+                    Assertions.assertTrue(SwingUtilities.isEventDispatchThread());
+                    c.setEnabled(false);
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }, 2, progress::add);
+        Assertions.assertEquals(21, future.get(10, TimeUnit.SECONDS).intValue());
+        Assertions.assertTrue(progress.size() > 1);
+        Assertions.assertEquals(21, progress.get(progress.size() - 1).intValue());
+        for (int i = 1; i < progress.size(); i++) {
+            Assertions.assertTrue(progress.get(i) >= progress.get(i - 1));
+        }
+        SwingUtilities.invokeAndWait(() -> Assertions.assertEquals(0, SwingStreamUtils.streamDescendants(panelRef.get())
+                .filter(Component::isEnabled)
+                .count()));
+
+        // exception:
+        CompletableFuture<Integer> failed = SwingStreamUtils.forEachOnEdt(Stream.of(1, 2, 3), i -> {
+            if (i == 2) {
+                throw new IllegalStateException("test");
+            }
+        });
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                () -> failed.get(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> SwingStreamUtils.forEachOnEdt(Stream.of(1), i -> {
+                }, 0, count -> {
+                }));
+    }
+
+    @Test
+    public void forEachOnEdt_cancel() throws Exception {
+        List<Integer> processed = new ArrayList<>();
+        AtomicReference<CompletableFuture<Integer>> futureRef = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> futureRef.set(SwingStreamUtils.forEachOnEdt(
+                IntStream.range(0, 100).boxed(), i -> {
+                    processed.add(i);
+                    if (i == 4) {
+                        futureRef.get().cancel(false);
+                    }
+                })));
+        Assertions.assertThrows(CancellationException.class, () -> futureRef.get().get(10, TimeUnit.SECONDS));
+        // let the remaining slices (if any) run:
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        SwingUtilities.invokeAndWait(() -> Assertions.assertEquals(asList(0, 1, 2, 3, 4), processed));
+    }
 }
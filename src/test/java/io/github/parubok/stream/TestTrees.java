@@ -0,0 +1,36 @@
+package io.github.parubok.stream;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+
+/**
+ * Trees of {@link DefaultMutableTreeNode} for tests. The children of a node are named after it - children of "r" are
+ * "r_0", "r_1", etc.
+ */
+final class TestTrees {
+    private TestTrees() {
+    }
+
+    /**
+     * @return Full tree - each node above the specified depth has the specified number of children.
+     */
+    static DefaultMutableTreeNode createTree(String name, int depth, int width) {
+        return createTree(name, depth, width, false);
+    }
+
+    /**
+     * @return Tree which is full except that every other child (with odd index) is a leaf.
+     */
+    static DefaultMutableTreeNode createIrregularTree(String name, int depth, int width) {
+        return createTree(name, depth, width, true);
+    }
+
+    private static DefaultMutableTreeNode createTree(String name, int depth, int width, boolean irregular) {
+        DefaultMutableTreeNode node = new DefaultMutableTreeNode(name);
+        if (depth > 0) {
+            for (int i = 0; i < width; i++) {
+                node.add(createTree(name + "_" + i, irregular && i % 2 == 1 ? 0 : depth - 1, width, irregular));
+            }
+        }
+        return node;
+    }
+}
@@ -0,0 +1,175 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class TreeModelDiffTest {
+
+    /**
+     * Source tree of strings "key=value". Children are specified as "parent: child1 child2 ...".
+     */
+    private static TreeStructure source(String... lines) {
+        Map<String, List<String>> children = new HashMap<>();
+        for (String line : lines) {
+            String[] parts = line.split(":");
+            children.put(parts[0].trim(), parts.length > 1
+                    ? Arrays.asList(parts[1].trim().split(" +")) : Collections.emptyList());
+        }
+        String root = lines[0].split(":")[0].trim();
+        return new TreeStructure() {
+            @Override
+            public Object getRoot() {
+                return root;
+            }
+
+            @Override
+            public Object getChild(Object parent, int index) {
+                return children.get(parent).get(index);
+            }
+
+            @Override
+            public int getChildCount(Object parent) {
+                return children.getOrDefault(parent, Collections.emptyList()).size();
+            }
+        };
+    }
+
+    private static final Function<Object, ?> KEY = userObject -> ((String) userObject).split("=")[0];
+
+    private static List<String> dump(DefaultTreeModel model) {
+        return SwingStreamUtils.stream(model)
+                .map(path -> path.getPathCount() + ":" + path.getLastPathComponent(DefaultMutableTreeNode.class)
+                        .getUserObject())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> dump(TreeStructure source) {
+        return SwingStreamUtils.stream(source)
+                .map(path -> path.getPathCount() + ":" + path.getLastPathComponent())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> recordEvents(DefaultTreeModel model) {
+        List<String> events = new ArrayList<>();
+        model.addTreeModelListener(new TreeModelListener() {
+            private void add(String type, TreeModelEvent e) {
+                Object parent = ((DefaultMutableTreeNode) e.getTreePath().getLastPathComponent()).getUserObject();
+                events.add(type + " " + parent + " " + Arrays.toString(e.getChildIndices()));
+            }
+
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+                add("changed", e);
+            }
+
+            @Override
+            public void treeNodesInserted(TreeModelEvent e) {
+                add("inserted", e);
+            }
+
+            @Override
+            public void treeNodesRemoved(TreeModelEvent e) {
+                add("removed", e);
+            }
+
+            @Override
+            public void treeStructureChanged(TreeModelEvent e) {
+                events.add("structure");
+            }
+        });
+        return events;
+    }
+
+    private static DefaultTreeModel createModel(TreeStructure source) {
+        DefaultTreeModel model = new DefaultTreeModel(null);
+        SwingStreamUtils.updateTreeModel(model, source, KEY);
+        return model;
+    }
+
+    @Test
+    public void insertRemoveChange() {
+        DefaultTreeModel model = createModel(source("r: a b c", "a: a1 a2", "c: c1"));
+        DefaultMutableTreeNode a = (DefaultMutableTreeNode) ((DefaultMutableTreeNode) model.getRoot()).getChildAt(0);
+        DefaultMutableTreeNode c1 = ((DefaultMutableTreeNode) model.getRoot()).getLastLeaf();
+        List<String> events = recordEvents(model);
+        TreeStructure newSource = source("r: a x c y", "a: a1 a2=new", "c: c1 c2", "x: x1");
+        SwingStreamUtils.updateTreeModel(model, newSource, KEY);
+        Assertions.assertEquals(dump(newSource), dump(model));
+        Assertions.assertEquals(Arrays.asList("removed r [1]", "inserted r [1, 3]", "changed a [1]",
+                "inserted c [1]"), events);
+        // matched nodes are preserved:
+        Assertions.assertSame(a, ((DefaultMutableTreeNode) model.getRoot()).getChildAt(0));
+        Assertions.assertSame(c1, ((DefaultMutableTreeNode) model.getRoot()).getChildAt(2).getChildAt(0));
+    }
+
+    @Test
+    public void unchanged_noEvents() {
+        TreeStructure source = source("r: a b c", "a: a1 a2", "c: c1");
+        DefaultTreeModel model = createModel(source);
+        List<String> events = recordEvents(model);
+        SwingStreamUtils.updateTreeModel(model, source, KEY);
+        Assertions.assertEquals(Collections.emptyList(), events);
+    }
+
+    @Test
+    public void reorder_movesMinimalNodes() {
+        DefaultTreeModel model = createModel(source("r: a b c d e", "e: e1"));
+        DefaultMutableTreeNode e = (DefaultMutableTreeNode) ((DefaultMutableTreeNode) model.getRoot()).getChildAt(4);
+        List<String> events = recordEvents(model);
+        TreeStructure newSource = source("r: e a b c d", "e: e1 e2");
+        SwingStreamUtils.updateTreeModel(model, newSource, KEY);
+        Assertions.assertEquals(dump(newSource), dump(model));
+        // only "e" is moved - with its subtree:
+        Assertions.assertEquals(Arrays.asList("removed r [4]", "inserted r [0]", "inserted e [1]"), events);
+        Assertions.assertSame(e, ((DefaultMutableTreeNode) model.getRoot()).getChildAt(0));
+    }
+
+    @Test
+    public void rootChange() {
+        DefaultTreeModel model = createModel(source("r: a"));
+        List<String> events = recordEvents(model);
+        SwingStreamUtils.updateTreeModel(model, source("r=2: a"), KEY);
+        Assertions.assertEquals(Collections.singletonList("changed r=2 null"), events);
+        events.clear();
+        TreeStructure newSource = source("q: a");
+        SwingStreamUtils.updateTreeModel(model, newSource, KEY);
+        Assertions.assertEquals(Collections.singletonList("structure"), events);
+        Assertions.assertEquals(dump(newSource), dump(model));
+    }
+
+    @Test
+    public void duplicateKeys() {
+        DefaultTreeModel model = createModel(source("r: a"));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> SwingStreamUtils.updateTreeModel(model, source("r: a b a=2"), KEY));
+
+        // the duplicates are deep in the tree - the model is not modified at all:
+        DefaultTreeModel deepModel = createModel(source("r: a b", "b: c"));
+        List<String> expected = dump(deepModel);
+        List<String> events = recordEvents(deepModel);
+        Assertions.assertThrows(IllegalStateException.class, () -> SwingStreamUtils.updateTreeModel(deepModel,
+                source("r=2: x a=2 b", "b: c d c=2"), KEY));
+        Assertions.assertEquals(expected, dump(deepModel));
+        Assertions.assertEquals(Collections.emptyList(), events);
+    }
+
+    @Test
+    public void findStaying() {
+        boolean[] stays = TreeModelDiff.findStaying(new int[]{3, -1, 0, 1, 4, 5});
+        Assertions.assertArrayEquals(new boolean[]{false, false, true, true, true, true}, stays);
+        Assertions.assertArrayEquals(new boolean[0], TreeModelDiff.findStaying(new int[0]));
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+
+public class TreePathIndexTest {
+
+    /**
+     * Checks that the index contains exactly the nodes of the model with the correct paths.
+     */
+    private static void assertConsistent(DefaultTreeModel model, TreePathIndex index) {
+        long count = SwingStreamUtils.stream(model)
+                .peek(path -> Assertions.assertEquals(path, index.getPath(path.getLastPathComponent())))
+                .count();
+        Assertions.assertEquals(count, index.size());
+    }
+
+    @Test
+    public void getPath() {
+        DefaultMutableTreeNode root = TestTrees.createTree("r", 3, 3);
+        DefaultTreeModel model = new DefaultTreeModel(root);
+        TreePathIndex index = new TreePathIndex(model);
+        Assertions.assertEquals(40, index.size());
+        assertConsistent(model, index);
+        DefaultMutableTreeNode node = (DefaultMutableTreeNode) root.getChildAt(1).getChildAt(2);
+        Assertions.assertEquals(new TreePath(node.getPath()), index.getPath(node));
+        Assertions.assertSame(root.getChildAt(1), index.getParent(node));
+        Assertions.assertNull(index.getParent(root));
+        Assertions.assertTrue(index.contains(node));
+        Assertions.assertFalse(index.contains(new DefaultMutableTreeNode("x")));
+        Assertions.assertNull(index.getPath(new DefaultMutableTreeNode("x")));
+    }
+
+    @Test
+    public void incrementalUpdates() {
+        DefaultMutableTreeNode root = TestTrees.createTree("r", 3, 3);
+        DefaultTreeModel model = new DefaultTreeModel(root);
+        TreePathIndex index = new TreePathIndex(model);
+        model.addTreeModelListener(index);
+
+        DefaultMutableTreeNode inserted = TestTrees.createTree("i", 2, 3);
+        model.insertNodeInto(inserted, (DefaultMutableTreeNode) root.getChildAt(0), 1);
+        Assertions.assertEquals(53, index.size());
+        assertConsistent(model, index);
+
+        DefaultMutableTreeNode removed = (DefaultMutableTreeNode) root.getChildAt(2);
+        model.removeNodeFromParent(removed);
+        Assertions.assertFalse(index.contains(removed));
+        Assertions.assertFalse(index.contains(removed.getFirstLeaf()));
+        Assertions.assertEquals(40, index.size());
+        assertConsistent(model, index);
+
+        // move subtree:
+        model.removeNodeFromParent(inserted);
+        model.insertNodeInto(inserted, (DefaultMutableTreeNode) root.getChildAt(1).getChildAt(0), 0);
+        assertConsistent(model, index);
+
+        DefaultMutableTreeNode changed = (DefaultMutableTreeNode) root.getChildAt(1);
+        changed.removeAllChildren();
+        changed.add(TestTrees.createTree("c", 1, 3));
+        model.nodeStructureChanged(changed);
+        Assertions.assertFalse(index.contains(inserted));
+        Assertions.assertEquals(19, index.size());
+        assertConsistent(model, index);
+
+        // the previous subtree is not reachable from the changed node:
+        DefaultMutableTreeNode r0 = (DefaultMutableTreeNode) root.getChildAt(0);
+        DefaultMutableTreeNode detached = (DefaultMutableTreeNode) r0.getChildAt(0);
+        r0.remove(detached);
+        model.nodeStructureChanged(r0);
+        Assertions.assertFalse(index.contains(detached));
+        Assertions.assertFalse(index.contains(detached.getFirstLeaf()));
+        assertConsistent(model, index);
+
+        model.setRoot(TestTrees.createTree("n", 1, 3));
+        Assertions.assertEquals(4, index.size());
+        assertConsistent(model, index);
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TreeSnapshotTest {
+
+    private static List<Object> nodes(TreeStructure treeStructure, TreeTraversalType traversalType) {
+        return SwingStreamUtils.stream(treeStructure, traversalType)
+                .map(KTreePath::getLastPathComponent)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void sameStructure() {
+        DefaultTreeModel model = new DefaultTreeModel(TestTrees.createIrregularTree("r", 4, 4));
+        TreeSnapshot snapshot = TreeSnapshot.of(model);
+        TreeModelTreeStructure treeStructure = new TreeModelTreeStructure(model, false);
+        for (TreeTraversalType type : TreeTraversalType.values()) {
+            Assertions.assertEquals(nodes(treeStructure, type), nodes(snapshot, type));
+        }
+        Assertions.assertEquals(nodes(treeStructure, TreeTraversalType.PRE_ORDER).size(), snapshot.size());
+        Assertions.assertEquals(nodes(treeStructure, TreeTraversalType.BREADTH_FIRST).get(5), snapshot.getNode(5));
+        Assertions.assertEquals(SwingStreamUtils.stream(snapshot).collect(Collectors.toList()),
+                SwingStreamUtils.parallelStream(snapshot).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void lookup() {
+        DefaultMutableTreeNode root = TestTrees.createIrregularTree("r", 2, 4);
+        TreeSnapshot snapshot = TreeSnapshot.of(new TreeModelTreeStructure(new DefaultTreeModel(root), false));
+        Assertions.assertSame(root, snapshot.getRoot());
+        Assertions.assertEquals(0, snapshot.indexOf(root));
+        Assertions.assertEquals(1, snapshot.indexOf(root.getChildAt(0)));
+        Assertions.assertTrue(snapshot.contains(root.getLastLeaf()));
+        DefaultMutableTreeNode unknown = new DefaultMutableTreeNode("x");
+        Assertions.assertFalse(snapshot.contains(unknown));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> snapshot.getChildCount(unknown));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> snapshot.getChild(root, 4));
+        // snapshot is not affected by changes of the source:
+        root.removeAllChildren();
+        Assertions.assertEquals(4, snapshot.getChildCount(root));
+    }
+
+    @Test
+    public void emptyAndDuplicate() {
+        TreeSnapshot empty = TreeSnapshot.of(new DefaultTreeModel(null));
+        Assertions.assertNull(empty.getRoot());
+        Assertions.assertEquals(0, empty.size());
+        Assertions.assertEquals(0, SwingStreamUtils.stream(empty).count());
+
+        DefaultTreeModel model = new DefaultTreeModel(new DefaultMutableTreeNode("r"));
+        TreeStructure duplicates = new TreeModelTreeStructure(model, false) {
+            @Override
+            public Object getChild(Object parent, int index) {
+                return "c";
+            }
+
+            @Override
+            public int getChildCount(Object parent) {
+                return parent == getRoot() ? 2 : 0;
+            }
+        };
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TreeSnapshot.of(duplicates));
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+public class TreeStructureSpliteratorTest {
+
+    /**
+     * Splits the spliterator recursively up to the specified level and collects the elements of the parts in order.
+     */
+    private static void collect(Spliterator<KTreePath> spliterator, int level, List<KTreePath> paths) {
+        Spliterator<KTreePath> prefix = level > 0 ? spliterator.trySplit() : null;
+        if (prefix != null) {
+            Assertions.assertTrue(prefix.hasCharacteristics(Spliterator.ORDERED));
+            Assertions.assertTrue(prefix.estimateSize() > 0);
+            collect(prefix, level - 1, paths);
+            collect(spliterator, level - 1, paths);
+        } else {
+            // split after the part was partially consumed:
+            if (spliterator.tryAdvance(paths::add)) {
+                Spliterator<KTreePath> rest = spliterator.trySplit();
+                if (rest != null) {
+                    rest.forEachRemaining(paths::add);
+                }
+            }
+            spliterator.forEachRemaining(paths::add);
+        }
+    }
+
+    /**
+     * Splits the spliterator as a parallel stream does - while the size estimate exceeds the threshold.
+     *
+     * @return Number of the parts.
+     */
+    private static int splitBySize(Spliterator<KTreePath> spliterator, long threshold, List<KTreePath> paths) {
+        Spliterator<KTreePath> prefix = spliterator.estimateSize() > threshold ? spliterator.trySplit() : null;
+        if (prefix == null) {
+            spliterator.forEachRemaining(paths::add);
+            return 1;
+        }
+        return splitBySize(prefix, threshold, paths) + splitBySize(spliterator, threshold, paths);
+    }
+
+    @Test
+    public void trySplit_boundedBySize() {
+        for (int depth = 2; depth < 7; depth++) {
+            DefaultTreeModel model = new DefaultTreeModel(TestTrees.createIrregularTree("n", depth, 6));
+            TreeStructure treeStructure = new TreeModelTreeStructure(model, false);
+            List<KTreePath> expected = SwingStreamUtils.stream(treeStructure).collect(Collectors.toList());
+            Spliterator<KTreePath> spliterator = new TreeStructureSpliterator(treeStructure, path -> true);
+            final int parallelism = 8;
+            final long threshold = spliterator.estimateSize() / (parallelism * 4); // as in java.util.stream
+            List<KTreePath> paths = new ArrayList<>();
+            int parts = splitBySize(spliterator, threshold, paths);
+            Assertions.assertEquals(expected, paths);
+            Assertions.assertTrue(parts > 1);
+            Assertions.assertTrue(parts <= parallelism * 8, "parts: " + parts);
+        }
+    }
+
+    @Test
+    public void trySplit_preservesPreOrder() {
+        DefaultTreeModel model = new DefaultTreeModel(TestTrees.createIrregularTree("n", 4, 7));
+        TreeStructure treeStructure = new TreeModelTreeStructure(model, false);
+        List<KTreePath> expected = SwingStreamUtils.stream(treeStructure).collect(Collectors.toList());
+        for (int level = 0; level < 12; level++) {
+            List<KTreePath> paths = new ArrayList<>();
+            collect(new TreeStructureSpliterator(treeStructure, path -> true), level, paths);
+            Assertions.assertEquals(expected, paths);
+        }
+    }
+
+    @Test
+    public void trySplit_maxDepth() {
+        DefaultTreeModel model = new DefaultTreeModel(TestTrees.createIrregularTree("n", 4, 7));
+        TreeStructure treeStructure = new TreeModelTreeStructure(model, false);
+        List<KTreePath> expected = SwingStreamUtils.stream(treeStructure, TreeTraversalType.PRE_ORDER, 2)
+                .collect(Collectors.toList());
+        List<KTreePath> paths = new ArrayList<>();
+        collect(new TreeStructureSpliterator(treeStructure, TreeTraversalType.maxDepthFilter(2)), 8, paths);
+        Assertions.assertEquals(expected, paths);
+    }
+
+    @Test
+    public void singleNode() {
+        DefaultTreeModel model = new DefaultTreeModel(new DefaultMutableTreeNode("root"));
+        Spliterator<KTreePath> spliterator = new TreeStructureSpliterator(new TreeModelTreeStructure(model, false),
+                path -> true);
+        Assertions.assertNull(spliterator.trySplit());
+        Assertions.assertTrue(spliterator.tryAdvance(path -> Assertions.assertEquals(KTreePath.of(model.getRoot()),
+                path)));
+        Assertions.assertFalse(spliterator.tryAdvance(path -> Assertions.fail()));
+        Assertions.assertEquals(0, spliterator.estimateSize());
+        Assertions.assertNull(spliterator.trySplit());
+    }
+
+    @Test
+    public void noRoot() {
+        DefaultTreeModel model = new DefaultTreeModel(null);
+        Spliterator<KTreePath> spliterator = new TreeStructureSpliterator(new TreeModelTreeStructure(model, false),
+                path -> true);
+        Assertions.assertEquals(0, spliterator.estimateSize());
+        Assertions.assertNull(spliterator.trySplit());
+        Assertions.assertFalse(spliterator.tryAdvance(path -> Assertions.fail()));
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.parubok.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTree;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TreeStructureTreeModelTest {
+
+    private static DefaultTreeModel createModel(int childCount) {
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+        for (int i = 0; i < childCount; i++) {
+            DefaultMutableTreeNode child = new DefaultMutableTreeNode("c" + i);
+            root.add(child);
+            for (int j = 0; j < 3; j++) {
+                child.add(new DefaultMutableTreeNode("c" + i + "_" + j));
+            }
+        }
+        return new DefaultTreeModel(root);
+    }
+
+    @Test
+    public void sameAsSource() {
+        DefaultTreeModel source = createModel(20);
+        TreeStructureTreeModel model = new TreeStructureTreeModel(new TreeModelTreeStructure(source, false));
+        Assertions.assertSame(source.getRoot(), model.getRoot());
+        Assertions.assertEquals(SwingStreamUtils.stream(source).collect(Collectors.toList()),
+                SwingStreamUtils.stream(model).collect(Collectors.toList()));
+        SwingStreamUtils.stream(source).forEach(path -> {
+            Object node = path.getLastPathComponent();
+            Assertions.assertEquals(source.isLeaf(node), model.isLeaf(node));
+            if (path.getParentPath() != null) {
+                Object parent = path.getParentPath().getLastPathComponent();
+                Assertions.assertEquals(source.getIndexOfChild(parent, node), model.getIndexOfChild(parent, node));
+            }
+        });
+        // only the root has more children than scanned:
+        Assertions.assertEquals(1, model.getIndexedParentCount());
+        Assertions.assertEquals(-1, model.getIndexOfChild(source.getRoot(), new DefaultMutableTreeNode()));
+        Assertions.assertEquals(-1, model.getIndexOfChild(source.getRoot(), null));
+    }
+
+    @Test
+    public void indexedParentsBounded() {
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+        for (int i = 0; i < 5; i++) {
+            DefaultMutableTreeNode child = new DefaultMutableTreeNode("c" + i);
+            root.add(child);
+            for (int j = 0; j < 10; j++) {
+                child.add(new DefaultMutableTreeNode("c" + i + "_" + j));
+            }
+        }
+        TreeStructureTreeModel model = new TreeStructureTreeModel(
+                new TreeModelTreeStructure(new DefaultTreeModel(root), false), 2);
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(9, model.getIndexOfChild(root.getChildAt(i), root.getChildAt(i).getChildAt(9)));
+        }
+        Assertions.assertEquals(2, model.getIndexedParentCount());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TreeStructureTreeModel(new TreeModelTreeStructure(new DefaultTreeModel(root), false), 0));
+    }
+
+    @Test
+    public void staleIndexes_rebuilt() {
+        DefaultTreeModel source = createModel(10);
+        DefaultMutableTreeNode root = (DefaultMutableTreeNode) source.getRoot();
+        TreeStructureTreeModel model = new TreeStructureTreeModel(new TreeModelTreeStructure(source, false));
+        DefaultMutableTreeNode c5 = (DefaultMutableTreeNode) root.getChildAt(5);
+        Assertions.assertEquals(5, model.getIndexOfChild(root, c5));
+        DefaultMutableTreeNode x = new DefaultMutableTreeNode("x");
+        root.insert(x, 0);
+        Assertions.assertEquals(6, model.getIndexOfChild(root, c5));
+        Assertions.assertEquals(0, model.getIndexOfChild(root, x));
+        root.remove(x);
+        Assertions.assertEquals(-1, model.getIndexOfChild(root, x));
+        Assertions.assertEquals(5, model.getIndexOfChild(root, c5));
+        // one child replaced by another - the child count is the same:
+        DefaultMutableTreeNode y = new DefaultMutableTreeNode("y");
+        root.remove(9);
+        root.add(y);
+        Assertions.assertEquals(9, model.getIndexOfChild(root, y));
+
+        List<TreePath> events = new ArrayList<>();
+        model.addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+            }
+
+            @Override
+            public void treeNodesInserted(TreeModelEvent e) {
+            }
+
+            @Override
+            public void treeNodesRemoved(TreeModelEvent e) {
+            }
+
+            @Override
+            public void treeStructureChanged(TreeModelEvent e) {
+                events.add(e.getTreePath());
+            }
+        });
+        model.nodeStructureChanged(null);
+        Assertions.assertEquals(0, model.getIndexedParentCount());
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(new TreePath(root), events.get(0));
+    }
+
+    @Test
+    public void asTreeModel_component() {
+        JPanel panel = new JPanel();
+        for (int i = 0; i < 20; i++) {
+            panel.add(new JLabel("l" + i));
+        }
+        TreeStructureTreeModel model = SwingStreamUtils.asTreeModel(panel);
+        Assertions.assertSame(panel, model.getRoot());
+        Assertions.assertEquals(20, model.getChildCount(panel));
+        Assertions.assertEquals(17, model.getIndexOfChild(panel, panel.getComponent(17)));
+        Assertions.assertTrue(model.isLeaf(panel.getComponent(17)));
+        Assertions.assertEquals(21, new JTree(model).getRowCount()); // the root is expanded
+    }
+}